@@ -0,0 +1,183 @@
+package com.adleritech.flexibee.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.adleritech.flexibee.core.api.FlexibeeClient;
+import com.adleritech.flexibee.core.api.FlexibeeClientRegistry;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceResponse;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.Okio;
+
+/**
+ * One {@link FlexibeeClient} shared by all benchmark threads against an in-process MockWebServer, covering
+ * the whole client stack - interceptors, authentication, logging, (de)serialization and error conversion.
+ * <p>
+ * Concurrency is set by the JMH thread count ({@code -t 16}), response sizes by the parameters of each benchmark's
+ * state. Every call asks for an id of its own, so concurrent callers never share a request. Sample time mode
+ * reports latency percentiles, allocations per call ({@code gc.alloc.rate.norm}) include the server side
+ * of the same JVM.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Create {
+        private final Server server = new Server();
+
+        private WinstromRequest invoiceRequest;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Buffer created = new Buffer().writeUtf8(Fixtures.winstromResponse(1));
+            server.start(request -> "PUT".equals(request.getMethod()) && request.getPath().equals("/c/winstrom/faktura-vydana.xml")
+                    ? xml(created.clone()) : null);
+            invoiceRequest = Fixtures.invoicesRequest(1);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            server.stop();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Invoice {
+        /**
+         * Lines of the invoice returned by {@code getIssuedInvoice}.
+         */
+        @Param({"3", "100"})
+        private int invoiceItems;
+
+        private final Server server = new Server();
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Buffer invoice = new Buffer().writeUtf8(Fixtures.issuedInvoiceResponse(invoiceItems));
+            server.start(request -> request.getPath().endsWith(".xml") ? xml(invoice.clone()) : null);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            server.stop();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pdf {
+        @Param({"65536", "1048576"})
+        private int pdfBytes;
+
+        private final Server server = new Server();
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Buffer pdf = new Buffer().write(new byte[pdfBytes]);
+            server.start(request -> request.getPath().endsWith(".pdf")
+                    ? new MockResponse().setHeader("Content-Type", "application/pdf").setBody(pdf.clone()) : null);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            server.stop();
+        }
+    }
+
+    /**
+     * Ids unique per thread and invocation.
+     */
+    @State(Scope.Thread)
+    public static class Ids {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private long next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            next = (long) THREADS.incrementAndGet() << 32;
+        }
+
+        String next() {
+            return String.valueOf(++next);
+        }
+    }
+
+    @Benchmark
+    public WinstromResponse createInvoice(Create state) throws Exception {
+        return state.server.client.createInvoice(state.invoiceRequest);
+    }
+
+    @Benchmark
+    public IssuedInvoiceResponse getIssuedInvoice(Invoice state, Ids ids) throws Exception {
+        return state.server.client.getIssuedInvoice(ids.next());
+    }
+
+    @Benchmark
+    public long downloadIssuedInvoiceAsPdf(Pdf state, Ids ids) throws Exception {
+        try (ResponseBody pdf = state.server.client.downloadIssuedInvoiceAsPdf(ids.next())) {
+            return pdf.source().readAll(Okio.blackhole());
+        }
+    }
+
+    private static MockResponse xml(Buffer body) {
+        return new MockResponse().setHeader("Content-Type", "application/xml; charset=utf-8").setBody(body);
+    }
+
+    private static class Server {
+        private MockWebServer server;
+
+        private FlexibeeClientRegistry registry;
+
+        private FlexibeeClient client;
+
+        /**
+         * @param responses response of a request, null for 404
+         */
+        void start(Function<RecordedRequest, MockResponse> responses) throws IOException {
+            server = new MockWebServer();
+            server.setServerSocketFactory(new NoDelayServerSocketFactory());
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    MockResponse response = responses.apply(request);
+                    return response != null ? response : new MockResponse().setResponseCode(404);
+                }
+            });
+            server.start();
+            registry = FlexibeeClientRegistry.create();
+            client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+        }
+
+        void stop() throws IOException {
+            registry.close();
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.adleritech.flexibee.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simpleframework.xml.Serializer;
+
+import com.adleritech.flexibee.core.api.domain.AddressBookResponse;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceResponse;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import com.adleritech.flexibee.core.api.transformers.Factory;
+
+/**
+ * Parsing of FlexiBee responses with the given number of records - address books, import results
+ * or lines of the returned invoice.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int records;
+
+    private Serializer serializer;
+
+    private String addressBookResponse;
+
+    private String winstromResponse;
+
+    private String issuedInvoiceResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = Factory.persister();
+        addressBookResponse = Fixtures.addressBookResponse(records);
+        winstromResponse = Fixtures.winstromResponse(records);
+        issuedInvoiceResponse = Fixtures.issuedInvoiceResponse(records);
+    }
+
+    @Benchmark
+    public AddressBookResponse addressBookResponse() throws Exception {
+        return serializer.read(AddressBookResponse.class, addressBookResponse, false);
+    }
+
+    @Benchmark
+    public WinstromResponse winstromResponse() throws Exception {
+        return serializer.read(WinstromResponse.class, winstromResponse, false);
+    }
+
+    @Benchmark
+    public IssuedInvoiceResponse issuedInvoiceResponse() throws Exception {
+        return serializer.read(IssuedInvoiceResponse.class, issuedInvoiceResponse, false);
+    }
+}
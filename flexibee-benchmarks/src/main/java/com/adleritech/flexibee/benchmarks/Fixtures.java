@@ -0,0 +1,136 @@
+package com.adleritech.flexibee.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceItem;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceItemType;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceItems;
+import com.adleritech.flexibee.core.api.domain.PaymentMethod;
+import com.adleritech.flexibee.core.api.domain.PaymentStatus;
+import com.adleritech.flexibee.core.api.domain.PriceKind;
+import com.adleritech.flexibee.core.api.domain.VatRateKind;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+
+/**
+ * Requests and FlexiBee responses of a given size, shaped like the ones of bulk export jobs.
+ */
+final class Fixtures {
+
+    static final int ITEMS_PER_INVOICE = 3;
+
+    private Fixtures() {
+    }
+
+    static WinstromRequest invoicesRequest(int invoices) {
+        WinstromRequest.WinstromRequestBuilder builder = WinstromRequest.builder();
+        for (int i = 0; i < invoices; i++) {
+            builder.issuedInvoice(invoice(i));
+        }
+        return builder.build();
+    }
+
+    static IssuedInvoice invoice(int i) {
+        List<IssuedInvoiceItem> items = new ArrayList<>();
+        for (int j = 0; j < ITEMS_PER_INVOICE; j++) {
+            items.add(IssuedInvoiceItem.builder()
+                    .name("Ride " + i + "/" + j)
+                    .amount(BigDecimal.ONE)
+                    .unitPrice(new BigDecimal("128140.96"))
+                    .vatRate(new BigDecimal("21"))
+                    .priceKind(PriceKind.withVat)
+                    .vatRateKind(VatRateKind.BASIC)
+                    .type(IssuedInvoiceItemType.GENERAL)
+                    .build());
+        }
+        return IssuedInvoice.builder()
+                .id(java.util.Collections.singletonList("ext:INVOICE:" + i))
+                .company("code:ABCFIRM1#")
+                .documentType("code:FAKTURA")
+                .paymentMethod(PaymentMethod.transfer)
+                .paymentStatus(PaymentStatus.FULLY)
+                .issued(LocalDate.of(2019, 1, 1))
+                .dueDate(LocalDate.of(2019, 1, 15))
+                .variableSymbol(String.valueOf(1_000_000 + i))
+                .sumTotal(new BigDecimal("384422.88"))
+                .currency("code:CZK")
+                .items(new IssuedInvoiceItems(items, false))
+                .build();
+    }
+
+    static String addressBookResponse(int records) {
+        StringBuilder xml = new StringBuilder("<winstrom version=\"1.0\">\n");
+        for (int i = 0; i < records; i++) {
+            xml.append("  <adresar>\n")
+                    .append("    <id>").append(i + 1).append("</id>\n")
+                    .append("    <id>code:FIRM").append(i).append("</id>\n")
+                    .append("    <kod>FIRM").append(i).append("</kod>\n")
+                    .append("    <nazev>Firma ").append(i).append(" s.r.o.</nazev>\n")
+                    .append("    <ic>").append(10_000_000 + i).append("</ic>\n")
+                    .append("    <dic>CZ").append(10_000_000 + i).append("</dic>\n")
+                    .append("    <platceDph>true</platceDph>\n")
+                    .append("    <ulice>Václavské náměstí ").append(i).append("</ulice>\n")
+                    .append("    <mesto>Praha</mesto>\n")
+                    .append("    <psc>11000</psc>\n")
+                    .append("    <stat>code:CZ</stat>\n")
+                    .append("  </adresar>\n");
+        }
+        return xml.append("</winstrom>\n").toString();
+    }
+
+    static String winstromResponse(int results) {
+        StringBuilder xml = new StringBuilder("<winstrom version=\"1.0\">\n")
+                .append("  <success>true</success>\n")
+                .append("  <stats>\n")
+                .append("    <created>").append(results).append("</created>\n")
+                .append("    <updated>0</updated>\n")
+                .append("    <deleted>0</deleted>\n")
+                .append("    <skipped>0</skipped>\n")
+                .append("    <failed>0</failed>\n")
+                .append("  </stats>\n")
+                .append("  <results>\n");
+        for (int i = 0; i < results; i++) {
+            xml.append("    <result>\n")
+                    .append("      <id>").append(i + 1).append("</id>\n")
+                    .append("      <ref>/c/winstrom/faktura-vydana/").append(i + 1).append(".xml</ref>\n")
+                    .append("    </result>\n");
+        }
+        return xml.append("  </results>\n</winstrom>\n").toString();
+    }
+
+    /**
+     * Invoice with the given number of lines - the response has a single invoice, its size grows with the lines.
+     */
+    static String issuedInvoiceResponse(int items) {
+        StringBuilder xml = new StringBuilder("<winstrom version=\"1.0\">\n")
+                .append("  <faktura-vydana>\n")
+                .append("    <id>1</id>\n")
+                .append("    <id>code:VF1-0001/2019</id>\n")
+                .append("    <typDokl>code:FAKTURA</typDokl>\n")
+                .append("    <stavUhrK>stavUhr.uhrazeno</stavUhrK>\n")
+                .append("    <firma>code:ABCFIRM1#</firma>\n")
+                .append("    <datVyst>2019-01-01+01:00</datVyst>\n")
+                .append("    <datSplat>2019-01-15+01:00</datSplat>\n")
+                .append("    <formaUhrK>formaUhr.prevod</formaUhrK>\n")
+                .append("    <varSym>1000001</varSym>\n")
+                .append("    <sumCelkem>384422.88</sumCelkem>\n")
+                .append("    <mena>code:CZK</mena>\n")
+                .append("    <polozkyFaktury>\n");
+        for (int i = 0; i < items; i++) {
+            xml.append("      <faktura-vydana-polozka>\n")
+                    .append("        <id>").append(i + 1).append("</id>\n")
+                    .append("        <nazev>Ride ").append(i).append("</nazev>\n")
+                    .append("        <mnozMj>1.0</mnozMj>\n")
+                    .append("        <cenaMj>128140.96</cenaMj>\n")
+                    .append("        <szbDph>21.0</szbDph>\n")
+                    .append("        <typCenyDphK>typCeny.sDphKoef</typCenyDphK>\n")
+                    .append("        <typSzbDphK>typSzbDph.dphZakl</typSzbDphK>\n")
+                    .append("        <typPolozkyK>typPolozky.obecny</typPolozkyK>\n")
+                    .append("      </faktura-vydana-polozka>\n");
+        }
+        return xml.append("    </polozkyFaktury>\n  </faktura-vydana>\n</winstrom>\n").toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.adleritech.flexibee.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.simpleframework.xml.transform.Matcher;
+
+import com.adleritech.flexibee.core.api.domain.PaymentStatus;
+import com.adleritech.flexibee.core.api.transformers.EnumTransform;
+import com.adleritech.flexibee.core.api.transformers.Factory;
+import com.adleritech.flexibee.core.api.transformers.LocalDateTransform;
+
+/**
+ * Transform resolution for the field types of one invoice line, {@code legacy} is the matcher
+ * {@link Factory#matchers()} used to return before the type keyed registry.
+ * <p>
+ * A persister resolves the transform of a type once and caches it, so this measures the cost of the first
+ * lookup of each type only, per record (de)serialization is covered by the other benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+
+    private static final Class<?>[] TYPES = {LocalDate.class, PaymentStatus.class, BigDecimal.class, Boolean.class, String.class};
+
+    private final Matcher legacy = type -> {
+        if (type.isEnum()) {
+            return new EnumTransform(type);
+        } else if (type.isInstance(LocalDate.now())) {
+            return new LocalDateTransform();
+        }
+        return null;
+    };
+
+    private final Matcher registry = Factory.matchers();
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) throws Exception {
+        for (Class<?> type : TYPES) {
+            blackhole.consume(legacy.match(type));
+        }
+    }
+
+    @Benchmark
+    public void registry(Blackhole blackhole) throws Exception {
+        for (Class<?> type : TYPES) {
+            blackhole.consume(registry.match(type));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.adleritech.flexibee.benchmarks;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import javax.net.ServerSocketFactory;
+
+/**
+ * Server sockets accepting connections with Nagle's algorithm off, MockWebServer writes headers and body
+ * separately and would otherwise wait for delayed ACKs on loopback.
+ */
+class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+    @Override
+    public ServerSocket createServerSocket() throws IOException {
+        return new NoDelayServerSocket();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        return new NoDelayServerSocket(port, 50, null);
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+        return new NoDelayServerSocket(port, backlog, null);
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+        return new NoDelayServerSocket(port, backlog, address);
+    }
+
+    private static class NoDelayServerSocket extends ServerSocket {
+        NoDelayServerSocket() throws IOException {
+        }
+
+        NoDelayServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            super(port, backlog, address);
+        }
+
+        @Override
+        public Socket accept() throws IOException {
+            Socket socket = super.accept();
+            socket.setTcpNoDelay(true);
+            return socket;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.adleritech.flexibee.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simpleframework.xml.Serializer;
+
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import com.adleritech.flexibee.core.api.transformers.Factory;
+
+/**
+ * Serialization of a {@link WinstromRequest} with the given number of invoices, each with
+ * {@value Fixtures#ITEMS_PER_INVOICE} lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int invoices;
+
+    private Serializer serializer;
+
+    private WinstromRequest request;
+
+    private ByteArrayOutputStream output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = Factory.persister();
+        request = Fixtures.invoicesRequest(invoices);
+        output = new ByteArrayOutputStream(invoices * 2048);
+    }
+
+    @Benchmark
+    public int serializeRequest() throws Exception {
+        output.reset();
+        serializer.write(request, output);
+        return output.size();
+    }
+}
@@ -0,0 +1,191 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.adleritech.flexibee.core.api.FlexibeeClient.FlexibeeException;
+import com.adleritech.flexibee.core.api.domain.AddressBookResponse;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Size bounded LRU cache of address book lookups with time based eviction, enabled by
+ * {@link FlexibeeClient#withAddressBookCache(AddressBookCache)}.
+ * <p>
+ * Lookups answered with {@link FlexibeeClient.NotFound} or with no record are cached with the separate, usually
+ * shorter, {@code notFoundTtl}. Cached responses are shared among callers and must not be modified.
+ * Blocking and {@link FlexibeeClient#async()} lookups share the cache.
+ * One cache can serve clients of many companies and endpoints, lookups are keyed by the base url and user
+ * of the client besides the company.
+ */
+public class AddressBookCache {
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final long notFoundTtlNanos;
+
+    private final LongSupplier clock;
+
+    private final Map<Key, Entry> entries;
+
+    /**
+     * Bumped by invalidation, so lookups started before an invalidation do not store stale responses.
+     */
+    private long generation;
+
+    @Builder
+    private AddressBookCache(Integer maxSize, Duration ttl, Duration notFoundTtl) {
+        this(maxSize != null ? maxSize : 10_000,
+                ttl != null ? ttl : Duration.ofMinutes(10),
+                notFoundTtl != null ? notFoundTtl : Duration.ofSeconds(30),
+                System::nanoTime);
+    }
+
+    AddressBookCache(int maxSize, Duration ttl, Duration notFoundTtl, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.notFoundTtlNanos = notFoundTtl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > AddressBookCache.this.maxSize;
+            }
+        };
+    }
+
+    AddressBookResponse get(String origin, String company, String lookup, String value,
+                            FlexibeeSupplier<AddressBookResponse> loader) throws IOException, FlexibeeException {
+        Key key = new Key(origin, company, lookup, value);
+        Entry entry = getIfPresent(key);
+        if (entry == null) {
+            long loadGeneration = generation();
+            try {
+                entry = found(loader.get());
+            } catch (FlexibeeClient.NotFound notFound) {
+                entry = notFound(notFound);
+            }
+            put(key, entry, loadGeneration);
+        }
+        if (entry.notFound != null) {
+            throw entry.notFound;
+        }
+        return entry.response;
+    }
+
+    /**
+     * Non-blocking {@link #get(String, String, String, String, FlexibeeSupplier)}, a loaded lookup is returned
+     * as the loader's future, so cancelling it cancels the call.
+     */
+    CompletableFuture<AddressBookResponse> getAsync(String origin, String company, String lookup, String value,
+                                                    Supplier<CompletableFuture<AddressBookResponse>> loader) {
+        Key key = new Key(origin, company, lookup, value);
+        Entry entry = getIfPresent(key);
+        if (entry != null) {
+            CompletableFuture<AddressBookResponse> cached = new CompletableFuture<>();
+            if (entry.notFound != null) {
+                cached.completeExceptionally(entry.notFound);
+            } else {
+                cached.complete(entry.response);
+            }
+            return cached;
+        }
+        long loadGeneration = generation();
+        CompletableFuture<AddressBookResponse> load = loader.get();
+        load.whenComplete((response, failure) -> {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause == null) {
+                put(key, found(response), loadGeneration);
+            } else if (cause instanceof FlexibeeClient.NotFound) {
+                put(key, notFound((FlexibeeClient.NotFound) cause), loadGeneration);
+            }
+        });
+        return load;
+    }
+
+    private Entry found(AddressBookResponse response) {
+        boolean empty = response == null || response.getAddressBook() == null || response.getAddressBook().isEmpty();
+        return new Entry(response, null, clock.getAsLong() + (empty ? notFoundTtlNanos : ttlNanos));
+    }
+
+    private Entry notFound(FlexibeeClient.NotFound notFound) {
+        return new Entry(null, notFound, clock.getAsLong() + notFoundTtlNanos);
+    }
+
+    /**
+     * Drops all cached lookups of the company, whatever base url and user they were loaded with.
+     */
+    public synchronized void invalidate(String company) {
+        for (Iterator<Key> it = entries.keySet().iterator(); it.hasNext(); ) {
+            if (it.next().getCompany().equals(company)) {
+                it.remove();
+            }
+        }
+        generation++;
+    }
+
+    /**
+     * Drops cached lookups of the company loaded with the base url and user of the origin.
+     */
+    synchronized void invalidate(String origin, String company) {
+        for (Iterator<Key> it = entries.keySet().iterator(); it.hasNext(); ) {
+            Key key = it.next();
+            if (key.getOrigin().equals(origin) && key.getCompany().equals(company)) {
+                it.remove();
+            }
+        }
+        generation++;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        generation++;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Entry getIfPresent(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - clock.getAsLong() <= 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void put(Key key, Entry entry, long loadGeneration) {
+        if (generation == loadGeneration) {
+            entries.put(key, entry);
+        }
+    }
+
+    @Value
+    private static class Key {
+        String origin;
+        String company;
+        String lookup;
+        String value;
+    }
+
+    @Value
+    private static class Entry {
+        AddressBookResponse response;
+        FlexibeeClient.NotFound notFound;
+        long expiresAt;
+    }
+}
@@ -0,0 +1,46 @@
+package com.adleritech.flexibee.core.api;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Totals of the records of an evidence matching a filter, computed by FlexiBee ({@code $sum}) without transferring
+ * the records, see {@link FlexibeeClient#aggregate(Evidence, Filter)}.
+ */
+public class Aggregate<T> {
+
+    private final Class<T> type;
+
+    @Getter
+    private final long rowCount;
+
+    /**
+     * Totals by FlexiBee element name, e.g. {@code sumCelkem}.
+     */
+    @Getter
+    private final Map<String, BigDecimal> sums;
+
+    Aggregate(Class<T> type, long rowCount, Map<String, BigDecimal> sums) {
+        this.type = type;
+        this.rowCount = rowCount;
+        this.sums = Collections.unmodifiableMap(sums);
+    }
+
+    /**
+     * Total of a property of the domain class, e.g. {@code getSum("remainingToPay")}.
+     *
+     * @return zero if FlexiBee reported no total of the property
+     * @throws IllegalArgumentException if the property is not an XML mapped field of the type
+     */
+    public BigDecimal getSum(String property) {
+        return sums.getOrDefault(Projection.elementName(type, property), BigDecimal.ZERO);
+    }
+
+    @Override
+    public String toString() {
+        return "Aggregate(rowCount=" + rowCount + ", sums=" + sums + ")";
+    }
+}
@@ -0,0 +1,185 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Batches by-id lookups of one evidence - ids requested within the window, or until the batch is full, are fetched
+ * with a single filtered request and each record is routed back to the future of its caller.
+ * <p>
+ * Internal ids are fetched with {@code (id in (...))}, {@code code:} ids with {@code (kod in (...))}, other identifiers
+ * (e.g. {@code ext:}) one by one. Codes are matched against the {@code kod} property of the returned records.
+ * Ids with no record fail with {@link FlexibeeClient.NotFound}.
+ * Futures are completed on OkHttp dispatcher threads.
+ */
+public class BatchLoader<T> {
+
+    static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    static final Duration DEFAULT_WINDOW = Duration.ofMillis(10);
+
+    private static final String CODE_PREFIX = "code:";
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "flexibee-batch-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Evidence<T> evidence;
+
+    private final FlexibeeAsyncClient async;
+
+    private final int maxBatchSize;
+
+    private final long windowNanos;
+
+    private Map<String, CompletableFuture<T>> pending = new LinkedHashMap<>();
+
+    private ScheduledFuture<?> scheduledFlush;
+
+    BatchLoader(Evidence<T> evidence, FlexibeeAsyncClient async, int maxBatchSize, Duration window) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.evidence = evidence;
+        this.async = async;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Requests a record, the same id requested again before the batch is sent shares the future.
+     */
+    public CompletableFuture<T> load(String id) {
+        Map<String, CompletableFuture<T>> batch = null;
+        CompletableFuture<T> future;
+        synchronized (this) {
+            future = pending.get(id);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(id, future);
+            if (pending.size() >= maxBatchSize) {
+                batch = takePending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = SCHEDULER.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+        return future;
+    }
+
+    /**
+     * Sends the pending batch right away.
+     */
+    public void flush() {
+        Map<String, CompletableFuture<T>> batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+
+    private Map<String, CompletableFuture<T>> takePending() {
+        Map<String, CompletableFuture<T>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<String, CompletableFuture<T>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> internalIds = new ArrayList<>();
+        List<String> codes = new ArrayList<>();
+        for (String id : batch.keySet()) {
+            if (isInternalId(id)) {
+                internalIds.add(id);
+            } else if (id.startsWith(CODE_PREFIX)) {
+                codes.add(id);
+            } else {
+                fetch(id, Collections.singletonList(id), batch);
+            }
+        }
+        if (!internalIds.isEmpty()) {
+            fetch("(id in (" + String.join(",", internalIds) + "))", internalIds, batch);
+        }
+        if (!codes.isEmpty()) {
+            String quoted = codes.stream()
+                    .map(code -> Filter.quote(code.substring(CODE_PREFIX.length())))
+                    .collect(Collectors.joining(","));
+            fetch("(kod in (" + quoted + "))", codes, batch);
+        }
+    }
+
+    private void fetch(String filter, List<String> ids, Map<String, CompletableFuture<T>> batch) {
+        async.listPage(evidence, filter, 0, ids.size()).whenComplete((records, throwable) -> {
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                ids.forEach(id -> batch.get(id).completeExceptionally(cause));
+                return;
+            }
+            for (T record : records) {
+                String code = evidence.code(record);
+                if (code != null) {
+                    for (String id : ids) {
+                        if (id.startsWith(CODE_PREFIX) && sameCode(id.substring(CODE_PREFIX.length()), code)) {
+                            batch.get(id).complete(record);
+                        }
+                    }
+                }
+                List<String> recordIds = evidence.ids(record);
+                if (recordIds == null) {
+                    continue;
+                }
+                for (String recordId : recordIds) {
+                    if (ids.contains(recordId)) {
+                        batch.get(recordId).complete(record);
+                    }
+                }
+            }
+            for (String id : ids) {
+                batch.get(id).completeExceptionally(new FlexibeeClient.NotFound(
+                        "Flexibee record " + evidence.getName() + "/" + id + " not found", null, null));
+            }
+        });
+    }
+
+    /**
+     * Codes are matched the way the {@code kod} filter does, regardless of case and surrounding whitespace.
+     */
+    private static boolean sameCode(String requested, String code) {
+        return requested.trim().equalsIgnoreCase(code.trim());
+    }
+
+    private static boolean isInternalId(String id) {
+        if (id.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (!Character.isDigit(id.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
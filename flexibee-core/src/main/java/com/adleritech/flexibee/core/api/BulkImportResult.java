@@ -0,0 +1,40 @@
+package com.adleritech.flexibee.core.api;
+
+import java.util.List;
+
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+/**
+ * Aggregated outcome of a {@link BulkImporter} run.
+ */
+@Value
+@Builder
+public class BulkImportResult {
+
+    /**
+     * Number of chunks the request was split into.
+     */
+    int chunks;
+
+    /**
+     * Stats summed over all chunks and results in chunk order. Error responses of failed chunks are included too.
+     */
+    WinstromResponse response;
+
+    @Singular
+    List<ChunkFailure> failures;
+
+    public boolean isSuccess() {
+        return failures.isEmpty() && response.isSuccess();
+    }
+
+    @Value
+    public static class ChunkFailure {
+        WinstromRequest chunk;
+        Throwable cause;
+    }
+}
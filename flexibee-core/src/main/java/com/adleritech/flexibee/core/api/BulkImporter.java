@@ -0,0 +1,221 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import org.simpleframework.xml.Serializer;
+
+import com.adleritech.flexibee.core.api.FlexibeeClient.FlexibeeException;
+import com.adleritech.flexibee.core.api.domain.Result;
+import com.adleritech.flexibee.core.api.domain.Stats;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import com.adleritech.flexibee.core.api.transformers.Factory;
+import lombok.Builder;
+
+/**
+ * Splits a large {@link WinstromRequest} into chunks bounded by record count and/or serialized size and submits them
+ * section by section, concurrently within a section, e.g. {@code importer.execute(request, client.async()::createInvoice)}.
+ * <p>
+ * Keep in mind FlexiBee imports each chunk in its own transaction, a failed chunk does not roll back the others.
+ */
+public class BulkImporter {
+
+    /**
+     * Bytes of the {@code <winstrom version="1.0">} envelope and XML declaration added to every chunk.
+     */
+    private static final int ENVELOPE_BYTES = 64;
+
+    private static final List<Function<WinstromRequest, List<?>>> SECTIONS = Arrays.asList(
+            WinstromRequest::getAddressBooks,
+            WinstromRequest::getOrders,
+            WinstromRequest::getReceivedInvoices,
+            WinstromRequest::getIssuedInvoices,
+            WinstromRequest::getInternalDocuments,
+            WinstromRequest::getReceivables,
+            WinstromRequest::getBanks,
+            WinstromRequest::getObligations
+    );
+
+    private final int maxRecords;
+
+    private final long maxBytes;
+
+    private final int parallelism;
+
+    private final Serializer serializer = Factory.persister();
+
+    /**
+     * @param maxRecords  max records in one chunk, 0 for no limit
+     * @param maxBytes    max serialized bytes of one chunk, 0 for no limit. A record bigger than the limit is sent alone
+     * @param parallelism max chunks in flight at once
+     */
+    @Builder
+    private BulkImporter(Integer maxRecords, Long maxBytes, Integer parallelism) {
+        this.maxRecords = maxRecords != null ? maxRecords : 500;
+        this.maxBytes = maxBytes != null ? maxBytes : 0;
+        this.parallelism = parallelism != null ? parallelism : 4;
+        if (this.maxRecords < 0 || this.maxBytes < 0 || this.parallelism < 1) {
+            throw new IllegalArgumentException("Invalid bulk import limits: maxRecords=" + maxRecords +
+                    ", maxBytes=" + maxBytes + ", parallelism=" + parallelism);
+        }
+    }
+
+    /**
+     * Submits all chunks of the request and waits for all of them. Sections are imported one after another in
+     * dependency order (address books first, so documents can reference them), only chunks of one section run
+     * concurrently, at most {@code parallelism} at a time.
+     * Failed chunks do not stop the import, they are reported in {@link BulkImportResult#getFailures()}.
+     */
+    public BulkImportResult execute(WinstromRequest request, Function<WinstromRequest, CompletableFuture<WinstromResponse>> sender) throws InterruptedException {
+        List<WinstromRequest> chunks = new ArrayList<>();
+        List<CompletableFuture<WinstromResponse>> futures = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(parallelism);
+        for (Function<WinstromRequest, List<?>> section : SECTIONS) {
+            List<CompletableFuture<WinstromResponse>> sectionFutures = new ArrayList<>();
+            for (WinstromRequest chunk : split(section(request, section))) {
+                inFlight.acquire();
+                CompletableFuture<WinstromResponse> future;
+                try {
+                    future = sender.apply(chunk);
+                } catch (RuntimeException e) {
+                    future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                }
+                future.whenComplete((response, throwable) -> inFlight.release());
+                chunks.add(chunk);
+                sectionFutures.add(future);
+            }
+            awaitAll(sectionFutures);
+            futures.addAll(sectionFutures);
+        }
+
+        BulkImportResult.BulkImportResultBuilder result = BulkImportResult.builder();
+        Stats stats = new Stats();
+        List<Result> results = new ArrayList<>();
+        boolean success = true;
+        for (int i = 0; i < chunks.size(); i++) {
+            WinstromResponse response;
+            try {
+                response = futures.get(i).join();
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                result.failure(new BulkImportResult.ChunkFailure(chunks.get(i), cause));
+                response = cause instanceof FlexibeeException ? ((FlexibeeException) cause).getErrorResponse() : null;
+                success = false;
+            }
+            if (response != null) {
+                success &= response.isSuccess();
+                merge(stats, response.getStats());
+                if (response.getResults() != null) {
+                    results.addAll(response.getResults());
+                }
+            }
+        }
+        return result.chunks(chunks.size())
+                .response(WinstromResponse.builder().success(success).stats(stats).results(results).build())
+                .build();
+    }
+
+    /**
+     * Splits the request into chunks respecting the configured limits, records keep their original order.
+     */
+    public List<WinstromRequest> split(WinstromRequest request) {
+        List<WinstromRequest> chunks = new ArrayList<>();
+        WinstromRequest chunk = new WinstromRequest();
+        int records = 0;
+        long bytes = ENVELOPE_BYTES;
+        for (Function<WinstromRequest, List<?>> section : SECTIONS) {
+            List<?> sectionRecords = section.apply(request);
+            if (sectionRecords == null) {
+                continue;
+            }
+            for (Object record : sectionRecords) {
+                long recordBytes = maxBytes > 0 ? serializedSize(record) : 0;
+                boolean recordsExceeded = maxRecords > 0 && records + 1 > maxRecords;
+                boolean bytesExceeded = maxBytes > 0 && bytes + recordBytes > maxBytes;
+                if (records > 0 && (recordsExceeded || bytesExceeded)) {
+                    chunks.add(chunk);
+                    chunk = new WinstromRequest();
+                    records = 0;
+                    bytes = ENVELOPE_BYTES;
+                }
+                add(section, chunk, record);
+                records++;
+                bytes += recordBytes;
+            }
+        }
+        if (records > 0) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static WinstromRequest section(WinstromRequest request, Function<WinstromRequest, List<?>> section) {
+        WinstromRequest sectionRequest = new WinstromRequest();
+        List<?> records = section.apply(request);
+        if (records != null) {
+            for (Object record : records) {
+                add(section, sectionRequest, record);
+            }
+        }
+        return sectionRequest;
+    }
+
+    private static void awaitAll(List<CompletableFuture<WinstromResponse>> futures) throws InterruptedException {
+        for (CompletableFuture<WinstromResponse> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException | CancellationException e) {
+                // reported with the results
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void add(Function<WinstromRequest, List<?>> section, WinstromRequest chunk, Object record) {
+        ((List<Object>) section.apply(chunk)).add(record);
+    }
+
+    private long serializedSize(Object record) {
+        CountingOutputStream out = new CountingOutputStream();
+        try {
+            serializer.write(record, out);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot serialize " + record, e);
+        }
+        return out.count;
+    }
+
+    private static void merge(Stats target, Stats source) {
+        if (source == null) {
+            return;
+        }
+        target.setCreated(target.getCreated() + source.getCreated());
+        target.setUpdated(target.getUpdated() + source.getUpdated());
+        target.setDeleted(target.getDeleted() + source.getDeleted());
+        target.setSkipped(target.getSkipped() + source.getSkipped());
+        target.setFailed(target.getFailed() + source.getFailed());
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
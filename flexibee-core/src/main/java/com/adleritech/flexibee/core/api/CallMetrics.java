@@ -0,0 +1,58 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Measurements of one call. Phases that did not happen, e.g. connect on a pooled connection, are zero.
+ * <p>
+ * When a response is decoded while it is being read, body read and decode overlap - body read spans from the
+ * response headers to the end of the body, decode is the time spent in the XML converter.
+ */
+@Value
+@Builder
+public class CallMetrics {
+
+    /**
+     * Name of the {@code FlexibeeClient.Api} method, e.g. {@code getIssuedInvoice}, or {@code other}.
+     */
+    String endpoint;
+
+    /**
+     * Status code of the last response, zero when no response arrived.
+     */
+    int statusCode;
+
+    long bytesSent;
+
+    long bytesReceived;
+
+    long connectNanos;
+
+    long tlsNanos;
+
+    /**
+     * From the request being sent to the response headers starting to arrive.
+     */
+    long serverWaitNanos;
+
+    long bodyReadNanos;
+
+    long decodeNanos;
+
+    long totalNanos;
+
+    /**
+     * Set when the call failed on I/O.
+     */
+    IOException failure;
+
+    /**
+     * @return status class like {@code 2xx}, or {@code failed} without a response
+     */
+    public String getStatusClass() {
+        return statusCode > 0 ? statusCode / 100 + "xx" : "failed";
+    }
+}
@@ -0,0 +1,14 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.util.OptionalLong;
+
+/**
+ * Storage of the last change version processed by a {@link ChangeFeed}.
+ */
+public interface ChangeCheckpoint {
+
+    OptionalLong load() throws IOException;
+
+    void save(long version) throws IOException;
+}
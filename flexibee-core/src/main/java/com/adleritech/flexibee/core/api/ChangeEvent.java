@@ -0,0 +1,56 @@
+package com.adleritech.flexibee.core.api;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * One entry of the FlexiBee changes API. The record is mapped from the change entry, which usually carries
+ * only the identifiers of the changed record.
+ */
+@Value
+public class ChangeEvent<T> {
+
+    Evidence<T> evidence;
+
+    Operation operation;
+
+    /**
+     * Global version the change was made in.
+     */
+    long version;
+
+    String timestamp;
+
+    T record;
+
+    public List<String> getIds() {
+        return evidence.ids(record);
+    }
+
+    public enum Operation {
+        CREATE("create"),
+        UPDATE("update"),
+        DELETE("delete");
+
+        private final String value;
+
+        Operation(String value) {
+            this.value = value;
+        }
+
+        static Operation of(String value) {
+            for (Operation operation : values()) {
+                if (operation.value.equals(value)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown change operation: " + value);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.adleritech.flexibee.core.api.FlexibeeClient.FlexibeeException;
+import lombok.AllArgsConstructor;
+import okhttp3.ResponseBody;
+
+/**
+ * Consumer of the FlexiBee changes API ({@code /c/{company}/changes.xml}), obtained via
+ * {@link FlexibeeClient#changeFeed(ChangeCheckpoint)}.
+ * <p>
+ * Every {@link #poll()} pages through changes newer than the checkpoint and delivers them to the listeners registered
+ * for their evidence. The checkpoint only advances past versions whose changes were all delivered, so a restart
+ * resumes where the previous run stopped. Delivery is at-least-once: changes of a version interrupted by a failure
+ * or crash are delivered again.
+ */
+public class ChangeFeed {
+
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private final FlexibeeClient client;
+
+    private final ChangeCheckpoint checkpoint;
+
+    private final int pageSize;
+
+    private final Map<String, List<Registration<?>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * All changes with version lower or equal are delivered, null until loaded from the checkpoint.
+     */
+    private Long committedVersion;
+
+    ChangeFeed(FlexibeeClient client, ChangeCheckpoint checkpoint) {
+        this(client, checkpoint, DEFAULT_PAGE_SIZE);
+    }
+
+    ChangeFeed(FlexibeeClient client, ChangeCheckpoint checkpoint, int pageSize) {
+        this.client = client;
+        this.checkpoint = checkpoint;
+        this.pageSize = pageSize;
+    }
+
+    public <T> ChangeFeed addListener(Evidence<T> evidence, ChangeListener<T> listener) {
+        listeners.computeIfAbsent(evidence.getName(), name -> new CopyOnWriteArrayList<>())
+                .add(new Registration<>(evidence, listener));
+        return this;
+    }
+
+    /**
+     * Delivers all pending changes.
+     *
+     * @return number of events delivered to listeners
+     * @throws ChangeListenerException when a listener fails, the checkpoint stays before the failed change
+     * @throws IOException               also when a change cannot be read, the checkpoint stays before it as well
+     */
+    public synchronized int poll() throws IOException, FlexibeeException {
+        long start = committedVersion() + 1;
+        int skip = 0;
+        int delivered = 0;
+        while (true) {
+            int limit = skip + pageSize;
+            int entries = 0;
+            long lastVersion = start;
+            int lastVersionEntries = 0;
+            try (ResponseBody body = client.fetchChanges(start, limit);
+                 XmlRecordScanner scanner = new XmlRecordScanner(body.byteStream(), null)) {
+                XmlRecordScanner.RawRecord record;
+                while ((record = scanner.next()) != null) {
+                    entries++;
+                    long version = version(record);
+                    lastVersionEntries = version == lastVersion ? lastVersionEntries + 1 : 1;
+                    lastVersion = version;
+                    if (version < start || (version == start && lastVersionEntries <= skip)) {
+                        continue;
+                    }
+                    try {
+                        delivered += dispatch(record, version);
+                    } catch (IOException | ChangeListenerException e) {
+                        commit(version - 1);
+                        throw e;
+                    }
+                }
+            }
+            if (entries < limit) {
+                if (entries > 0) {
+                    commit(lastVersion);
+                }
+                return delivered;
+            }
+            // the last version might continue on the next page, fetch it again and skip what was delivered
+            commit(lastVersion - 1);
+            skip = lastVersionEntries;
+            start = lastVersion;
+        }
+    }
+
+    private int dispatch(XmlRecordScanner.RawRecord record, long version) throws IOException {
+        List<Registration<?>> registrations = listeners.get(record.getName());
+        if (registrations == null) {
+            return 0;
+        }
+        for (Registration<?> registration : registrations) {
+            registration.deliver(record, version);
+        }
+        return registrations.size();
+    }
+
+    private long committedVersion() throws IOException {
+        if (committedVersion == null) {
+            committedVersion = checkpoint.load().orElse(0L);
+        }
+        return committedVersion;
+    }
+
+    private void commit(long version) throws IOException {
+        if (version > committedVersion) {
+            checkpoint.save(version);
+            committedVersion = version;
+        }
+    }
+
+    private static long version(XmlRecordScanner.RawRecord record) throws IOException {
+        String version = record.getAttributes().get("in-version");
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw new IOException("Change of " + record.getName() + " without valid in-version: " + version, e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Registration<T> {
+        private final Evidence<T> evidence;
+        private final ChangeListener<T> listener;
+
+        void deliver(XmlRecordScanner.RawRecord record, long version) throws IOException {
+            ChangeEvent<T> event;
+            try {
+                T value = WinstromReader.read(evidence.getType(), record.getXml());
+                event = new ChangeEvent<>(evidence, ChangeEvent.Operation.of(record.getAttributes().get("operation")),
+                        version, record.getAttributes().get("timestamp"), value);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Cannot read " + record.getName() + " change in version " + version + ": " + e.getMessage(), e);
+            }
+            try {
+                listener.onChange(event);
+            } catch (Exception e) {
+                throw new ChangeListenerException("Listener failed on " + record.getName() + " change in version " + version, e);
+            }
+        }
+    }
+
+    public static class ChangeListenerException extends RuntimeException {
+        private ChangeListenerException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.adleritech.flexibee.core.api;
+
+@FunctionalInterface
+public interface ChangeListener<T> {
+
+    /**
+     * Exceptions stop the {@link ChangeFeed#poll()}, the failed change is delivered again by the next poll.
+     */
+    void onChange(ChangeEvent<T> event) throws Exception;
+}
@@ -0,0 +1,163 @@
+package com.adleritech.flexibee.core.api;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker of one FlexiBee instance and company with a count based sliding window of call outcomes.
+ */
+class CircuitBreaker {
+
+    static final long REJECTED = -1;
+
+    private static final long CLOSED_PERMIT = 0;
+
+    private final CircuitBreakerPolicy policy;
+
+    private final String baseUrl;
+
+    private final String company;
+
+    private final LongSupplier clock;
+
+    private final boolean[] failures;
+
+    private final boolean[] slowCalls;
+
+    private int recorded;
+
+    private int next;
+
+    private int failureCount;
+
+    private int slowCount;
+
+    private CircuitState state = CircuitState.CLOSED;
+
+    private long openedAt;
+
+    /**
+     * Number of the current half-open round, identifies its trial permits.
+     */
+    private long trialRound;
+
+    private int trialsStarted;
+
+    private int trialsSucceeded;
+
+    CircuitBreaker(CircuitBreakerPolicy policy, String baseUrl, String company, LongSupplier clock) {
+        this.policy = policy;
+        this.baseUrl = baseUrl;
+        this.company = company;
+        this.clock = clock;
+        this.failures = new boolean[policy.getWindowSize()];
+        this.slowCalls = new boolean[policy.getWindowSize()];
+    }
+
+    /**
+     * @return {@link #REJECTED} if the call must not be sent, otherwise a permit whose call has to be passed to
+     * {@link #record} or, if cancelled, to {@link #release}
+     */
+    long tryAcquire() {
+        CircuitState from;
+        long permit;
+        synchronized (this) {
+            from = state;
+            if (state == CircuitState.CLOSED) {
+                return CLOSED_PERMIT;
+            }
+            if (state == CircuitState.OPEN) {
+                if (clock.getAsLong() - openedAt < policy.getOpenNanos()) {
+                    return REJECTED;
+                }
+                state = CircuitState.HALF_OPEN;
+                trialRound++;
+                trialsStarted = 0;
+                trialsSucceeded = 0;
+            }
+            if (trialsStarted >= policy.getHalfOpenCalls()) {
+                return REJECTED;
+            }
+            trialsStarted++;
+            permit = trialRound;
+        }
+        notifyTransition(from, CircuitState.HALF_OPEN);
+        return permit;
+    }
+
+    /**
+     * Outcome of a call, only trials of the current half-open round decide whether the breaker closes.
+     */
+    void record(long permit, boolean failure, long durationNanos) {
+        boolean slow = durationNanos >= policy.getSlowCallNanos();
+        CircuitState from;
+        CircuitState to;
+        synchronized (this) {
+            from = state;
+            if (state == CircuitState.HALF_OPEN) {
+                if (permit != trialRound) {
+                    return;
+                }
+                if (failure || slow) {
+                    open();
+                } else if (++trialsSucceeded >= policy.getHalfOpenCalls()) {
+                    close();
+                }
+            } else if (state == CircuitState.CLOSED) {
+                add(failure, slow);
+                if (recorded >= policy.getMinimumCalls()
+                        && ((double) failureCount / recorded >= policy.getFailureRateThreshold()
+                        || (double) slowCount / recorded >= policy.getSlowCallRateThreshold())) {
+                    open();
+                }
+            }
+            to = state;
+        }
+        notifyTransition(from, to);
+    }
+
+    /**
+     * Gives back the permit of a call cancelled before its outcome was known, so a trial slot is not lost.
+     */
+    synchronized void release(long permit) {
+        if (state == CircuitState.HALF_OPEN && permit == trialRound && trialsStarted > 0) {
+            trialsStarted--;
+        }
+    }
+
+    synchronized CircuitState getState() {
+        return state;
+    }
+
+    private void add(boolean failure, boolean slow) {
+        if (recorded == failures.length) {
+            failureCount -= failures[next] ? 1 : 0;
+            slowCount -= slowCalls[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        slowCalls[next] = slow;
+        failureCount += failure ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        next = (next + 1) % failures.length;
+    }
+
+    private void open() {
+        state = CircuitState.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    private void close() {
+        state = CircuitState.CLOSED;
+        recorded = 0;
+        next = 0;
+        failureCount = 0;
+        slowCount = 0;
+    }
+
+    private void notifyTransition(CircuitState from, CircuitState to) {
+        if (from != to && policy.getListener() != null) {
+            policy.getListener().onStateChange(baseUrl, company, from, to);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import lombok.Value;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Guards every FlexiBee instance and company by its own {@link CircuitBreaker}. Server errors (5xx) and I/O failures
+ * count as failures, cancelled calls are not counted at all.
+ */
+class CircuitBreakerInterceptor implements Interceptor {
+
+    private final CircuitBreakerPolicy policy;
+
+    private final LongSupplier clock;
+
+    private final ConcurrentMap<Key, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    CircuitBreakerInterceptor(CircuitBreakerPolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    CircuitBreakerInterceptor(CircuitBreakerPolicy policy, LongSupplier clock) {
+        this.policy = policy;
+        this.clock = clock;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        HttpUrl url = chain.request().url();
+        Key key = new Key(url.scheme() + "://" + url.host() + ":" + url.port(), Governor.company(url));
+        CircuitBreaker breaker = breakers.computeIfAbsent(key,
+                k -> new CircuitBreaker(policy, k.getBaseUrl(), k.getCompany(), clock));
+        long permit = breaker.tryAcquire();
+        if (permit == CircuitBreaker.REJECTED) {
+            throw new CircuitBreakerOpenException(key.getBaseUrl(), key.getCompany());
+        }
+        long start = clock.getAsLong();
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            if (chain.call().isCanceled()) {
+                breaker.release(permit);
+            } else {
+                breaker.record(permit, true, clock.getAsLong() - start);
+            }
+            throw e;
+        }
+        breaker.record(permit, response.code() >= 500, clock.getAsLong() - start);
+        return response;
+    }
+
+    CircuitState state(String baseUrl, String company) {
+        CircuitBreaker breaker = breakers.get(new Key(baseUrl, company));
+        return breaker != null ? breaker.getState() : CircuitState.CLOSED;
+    }
+
+    @Value
+    private static class Key {
+        String baseUrl;
+        String company;
+    }
+}
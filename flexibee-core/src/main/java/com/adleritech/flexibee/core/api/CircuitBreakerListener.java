@@ -0,0 +1,13 @@
+package com.adleritech.flexibee.core.api;
+
+/**
+ * Observes circuit breaker state transitions, e.g. to log or alert on them. Invoked on the thread that completed
+ * the call causing the transition.
+ */
+public interface CircuitBreakerListener {
+
+    /**
+     * @param company null for requests not bound to a company
+     */
+    void onStateChange(String baseUrl, String company, CircuitState from, CircuitState to);
+}
@@ -0,0 +1,22 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+
+import lombok.Getter;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker of its FlexiBee instance and company is open.
+ */
+@Getter
+public class CircuitBreakerOpenException extends IOException {
+
+    private final String baseUrl;
+
+    private final String company;
+
+    CircuitBreakerOpenException(String baseUrl, String company) {
+        super("Circuit breaker of " + baseUrl + (company != null ? " company " + company : "") + " is open");
+        this.baseUrl = baseUrl;
+        this.company = company;
+    }
+}
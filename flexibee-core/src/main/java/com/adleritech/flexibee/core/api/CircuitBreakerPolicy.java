@@ -0,0 +1,60 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Circuit breaker settings, set by {@link FlexibeeClientRegistry.FlexibeeClientRegistryBuilder#circuitBreakerPolicy}.
+ * Every FlexiBee instance (base url) and company has its own breaker.
+ * <p>
+ * The breaker opens when, among the last {@code windowSize} calls, the share of failures (I/O errors and 5xx
+ * responses) or of calls slower than {@code slowCallDuration} reaches its threshold. After {@code openDuration}
+ * it lets {@code halfOpenCalls} trial calls through - one failing trial opens it again, all succeeding close it.
+ */
+@Getter
+public class CircuitBreakerPolicy {
+
+    private final int windowSize;
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final double slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final CircuitBreakerListener listener;
+
+    /**
+     * @param windowSize            calls the rates are computed from, 20 by default
+     * @param minimumCalls          calls needed before the breaker may open, 10 by default
+     * @param failureRateThreshold  0.5 by default
+     * @param slowCallRateThreshold 0.8 by default
+     * @param slowCallDuration      10 s by default
+     * @param openDuration          how long requests fail fast, 30 s by default
+     * @param halfOpenCalls         trial calls, 3 by default
+     * @param listener              notified about state transitions
+     */
+    @Builder
+    private CircuitBreakerPolicy(Integer windowSize, Integer minimumCalls, Double failureRateThreshold, Double slowCallRateThreshold,
+                                 Duration slowCallDuration, Duration openDuration, Integer halfOpenCalls, CircuitBreakerListener listener) {
+        this.windowSize = windowSize != null ? windowSize : 20;
+        this.minimumCalls = minimumCalls != null ? minimumCalls : 10;
+        this.failureRateThreshold = failureRateThreshold != null ? failureRateThreshold : 0.5;
+        this.slowCallRateThreshold = slowCallRateThreshold != null ? slowCallRateThreshold : 0.8;
+        this.slowCallNanos = (slowCallDuration != null ? slowCallDuration : Duration.ofSeconds(10)).toNanos();
+        this.openNanos = (openDuration != null ? openDuration : Duration.ofSeconds(30)).toNanos();
+        this.halfOpenCalls = halfOpenCalls != null ? halfOpenCalls : 3;
+        this.listener = listener;
+        if (this.minimumCalls > this.windowSize) {
+            throw new IllegalArgumentException("Minimum calls " + this.minimumCalls + " exceed window size " + this.windowSize);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.adleritech.flexibee.core.api;
+
+/**
+ * State of a circuit breaker guarding one FlexiBee instance and company, see {@link CircuitBreakerPolicy}.
+ */
+public enum CircuitState {
+    /**
+     * Requests pass, outcomes are tracked.
+     */
+    CLOSED,
+    /**
+     * Requests fail fast with {@link CircuitBreakerOpenException}.
+     */
+    OPEN,
+    /**
+     * A few trial requests pass to find out whether the instance recovered.
+     */
+    HALF_OPEN
+}
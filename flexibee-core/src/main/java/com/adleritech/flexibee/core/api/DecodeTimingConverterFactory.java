@@ -0,0 +1,49 @@
+package com.adleritech.flexibee.core.api;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Delegates to the XML converter and reports the time spent decoding responses to {@link MetricsEventListener}.
+ */
+class DecodeTimingConverterFactory extends Converter.Factory {
+
+    private final Converter.Factory delegate;
+
+    DecodeTimingConverterFactory(Converter.Factory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        Converter<ResponseBody, ?> converter = delegate.responseBodyConverter(type, annotations, retrofit);
+        if (converter == null) {
+            return null;
+        }
+        return value -> {
+            MetricsEventListener listener = MetricsEventListener.decodeStarted();
+            try {
+                return converter.convert(value);
+            } finally {
+                if (listener != null) {
+                    listener.decodeFinished();
+                }
+            }
+        };
+    }
+
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(Type type, Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
+        return delegate.requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+    }
+
+    @Override
+    public Converter<?, String> stringConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        return delegate.stringConverter(type, annotations, retrofit);
+    }
+}
@@ -0,0 +1,19 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+
+import lombok.Value;
+
+/**
+ * Outcome of a streamed download, see {@link FlexibeeClient#downloadIssuedInvoicePdf(String, java.nio.file.Path)}.
+ */
+@Value
+public class DownloadResult {
+
+    long bytes;
+
+    /**
+     * From sending the request to writing the last byte.
+     */
+    Duration duration;
+}
@@ -0,0 +1,35 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+/**
+ * Applies {@link TransportOptions#getCallTimeoutOverrides()} to calls of the overridden endpoints. The call timeout
+ * belongs to the call itself, an interceptor cannot extend it.
+ */
+class EndpointTimeoutCallFactory implements Call.Factory {
+
+    private final OkHttpClient client;
+
+    private final Map<String, Duration> callTimeouts;
+
+    EndpointTimeoutCallFactory(OkHttpClient client, Map<String, Duration> callTimeouts) {
+        this.client = client;
+        this.callTimeouts = callTimeouts;
+    }
+
+    @Override
+    public Call newCall(Request request) {
+        Call call = client.newCall(request);
+        Duration callTimeout = callTimeouts.get(MetricsEventListener.endpoint(request));
+        if (callTimeout != null) {
+            call.timeout().timeout(callTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return call;
+    }
+}
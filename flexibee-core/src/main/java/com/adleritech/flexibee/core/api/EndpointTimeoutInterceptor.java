@@ -0,0 +1,30 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Applies {@link TransportOptions#getReadTimeoutOverrides()} to calls of the overridden endpoints.
+ */
+class EndpointTimeoutInterceptor implements Interceptor {
+
+    private final Map<String, Duration> readTimeouts;
+
+    EndpointTimeoutInterceptor(Map<String, Duration> readTimeouts) {
+        this.readTimeouts = readTimeouts;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Duration readTimeout = readTimeouts.get(MetricsEventListener.endpoint(chain.request()));
+        if (readTimeout == null) {
+            return chain.proceed(chain.request());
+        }
+        return chain.withReadTimeout((int) readTimeout.toMillis(), TimeUnit.MILLISECONDS).proceed(chain.request());
+    }
+}
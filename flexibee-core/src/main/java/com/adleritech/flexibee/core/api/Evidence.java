@@ -0,0 +1,79 @@
+package com.adleritech.flexibee.core.api;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.adleritech.flexibee.core.api.domain.AddressBook;
+import com.adleritech.flexibee.core.api.domain.Bank;
+import com.adleritech.flexibee.core.api.domain.InternalDocument;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.Obligation;
+import com.adleritech.flexibee.core.api.domain.Receivable;
+import com.adleritech.flexibee.core.api.domain.ReceivedInvoice;
+import lombok.Getter;
+
+/**
+ * FlexiBee evidence (REST resource) together with the domain class its records map to.
+ */
+public final class Evidence<T> {
+
+    public static final Evidence<AddressBook> ADDRESS_BOOK = new Evidence<>("adresar", AddressBook.class, AddressBook::getId,
+            AddressBook::getCode);
+
+    public static final Evidence<IssuedInvoice> ISSUED_INVOICE = new Evidence<>("faktura-vydana", IssuedInvoice.class, IssuedInvoice::getId,
+            IssuedInvoice::getCode);
+
+    public static final Evidence<ReceivedInvoice> RECEIVED_INVOICE = new Evidence<>("faktura-prijata", ReceivedInvoice.class, ReceivedInvoice::getIds,
+            ReceivedInvoice::getCode);
+
+    public static final Evidence<Bank> BANK = new Evidence<>("banka", Bank.class, Bank::getId,
+            Bank::getCode);
+
+    public static final Evidence<Receivable> RECEIVABLE = new Evidence<>("pohledavka", Receivable.class, Receivable::getId,
+            Receivable::getCode);
+
+    public static final Evidence<Obligation> OBLIGATION = new Evidence<>("zavazek", Obligation.class, Obligation::getId,
+            Obligation::getCode);
+
+    public static final Evidence<InternalDocument> INTERNAL_DOCUMENT = new Evidence<>("interni-doklad", InternalDocument.class, InternalDocument::getId,
+            InternalDocument::getCode);
+
+    /**
+     * Path segment of the evidence, also the XML element name of its records.
+     */
+    @Getter
+    private final String name;
+
+    @Getter
+    private final Class<T> type;
+
+    private final Function<T, List<String>> ids;
+
+    private final Function<T, String> code;
+
+    private Evidence(String name, Class<T> type, Function<T, List<String>> ids, Function<T, String> code) {
+        this.name = name;
+        this.type = type;
+        this.ids = ids;
+        this.code = code;
+    }
+
+    /**
+     * All identifiers of the record - internal id, {@code code:}, {@code ext:} ...
+     */
+    public List<String> ids(T record) {
+        return ids.apply(record);
+    }
+
+    /**
+     * Code of the record, the {@code kod} property.
+     */
+    public String code(T record) {
+        return code.apply(record);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,46 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.OptionalLong;
+
+/**
+ * Keeps the checkpoint in a local file. The file is replaced atomically, so a crash never leaves it half written.
+ */
+public class FileChangeCheckpoint implements ChangeCheckpoint {
+
+    private final Path file;
+
+    public FileChangeCheckpoint(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public OptionalLong load() throws IOException {
+        if (!Files.exists(file)) {
+            return OptionalLong.empty();
+        }
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        try {
+            return OptionalLong.of(Long.parseLong(content));
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupted change checkpoint " + file + ": " + content, e);
+        }
+    }
+
+    @Override
+    public void save(long version) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, Long.toString(version).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
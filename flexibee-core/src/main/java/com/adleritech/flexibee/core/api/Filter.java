@@ -0,0 +1,190 @@
+package com.adleritech.flexibee.core.api;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Server side filter of an evidence, rendered to FlexiBee filter syntax, e.g.
+ * <pre>
+ * Filter.where(Evidence.ISSUED_INVOICE, "dueDate").lt(LocalDate.now())
+ *         .and(Filter.where(Evidence.ISSUED_INVOICE, "paymentStatus").isNull())
+ * </pre>
+ * renders {@code datSplat < '2024-05-01' and stavUhrK is null}. Properties are field names of the domain class,
+ * values are checked against the field type and string values are quoted and escaped.
+ */
+public final class Filter<T> {
+
+    private final String expression;
+
+    private final boolean composite;
+
+    private Filter(String expression, boolean composite) {
+        this.expression = expression;
+        this.composite = composite;
+    }
+
+    public static <T> Property<T> where(Evidence<T> evidence, String property) {
+        return where(evidence.getType(), property);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the property is not an XML mapped field of the type
+     */
+    public static <T> Property<T> where(Class<T> type, String property) {
+        Field field = Projection.field(type, property);
+        return new Property<>(Projection.elementName(field), valueType(field));
+    }
+
+    public static <T> Filter<T> not(Filter<T> filter) {
+        return new Filter<>("not (" + filter.expression + ")", false);
+    }
+
+    public Filter<T> and(Filter<T> other) {
+        return new Filter<>(operand(this) + " and " + operand(other), true);
+    }
+
+    public Filter<T> or(Filter<T> other) {
+        return new Filter<>(operand(this) + " or " + operand(other), true);
+    }
+
+    /**
+     * Path segment selecting the filtered records, e.g. {@code (kod = 'A')}.
+     */
+    String toPath() {
+        return "(" + expression + ")";
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static String operand(Filter<?> filter) {
+        return filter.composite ? "(" + filter.expression + ")" : filter.expression;
+    }
+
+    private static Class<?> valueType(Field field) {
+        Class<?> type = field.getType();
+        if (List.class.isAssignableFrom(type)) {
+            // identifier lists like id
+            return String.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == double.class) {
+            return Double.class;
+        }
+        return type;
+    }
+
+    static String quote(String value) {
+        return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    /**
+     * One property of the domain class, the starting point of a condition.
+     */
+    public static final class Property<T> {
+
+        private final String element;
+
+        private final Class<?> valueType;
+
+        private Property(String element, Class<?> valueType) {
+            this.element = element;
+            this.valueType = valueType;
+        }
+
+        public Filter<T> eq(Object value) {
+            return compare("=", value);
+        }
+
+        public Filter<T> ne(Object value) {
+            return compare("<>", value);
+        }
+
+        public Filter<T> lt(Object value) {
+            return compare("<", value);
+        }
+
+        public Filter<T> lte(Object value) {
+            return compare("<=", value);
+        }
+
+        public Filter<T> gt(Object value) {
+            return compare(">", value);
+        }
+
+        public Filter<T> gte(Object value) {
+            return compare(">=", value);
+        }
+
+        /**
+         * Both bounds inclusive.
+         */
+        public Filter<T> between(Object from, Object to) {
+            return new Filter<>(element + " >= " + literal(from) + " and " + element + " <= " + literal(to), true);
+        }
+
+        public Filter<T> in(Object... values) {
+            return in(Arrays.asList(values));
+        }
+
+        public Filter<T> in(Collection<?> values) {
+            if (values.isEmpty()) {
+                throw new IllegalArgumentException("No values for " + element + " in");
+            }
+            return new Filter<>(element + " in (" + values.stream().map(this::literal).collect(Collectors.joining(",")) + ")", false);
+        }
+
+        /**
+         * Contains the text, FlexiBee {@code like} compares case insensitively.
+         */
+        public Filter<T> like(String text) {
+            return compare("like", text);
+        }
+
+        public Filter<T> beginsWith(String text) {
+            return compare("begins", text);
+        }
+
+        public Filter<T> endsWith(String text) {
+            return compare("ends", text);
+        }
+
+        public Filter<T> isNull() {
+            return new Filter<>(element + " is null", false);
+        }
+
+        public Filter<T> isNotNull() {
+            return new Filter<>(element + " is not null", false);
+        }
+
+        private Filter<T> compare(String operator, Object value) {
+            return new Filter<>(element + " " + operator + " " + literal(value), false);
+        }
+
+        private String literal(Object value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Null value for " + element + ", use isNull()");
+            }
+            if (!valueType.isInstance(value)) {
+                throw new IllegalArgumentException("Value " + value + " of " + element + " is not " + valueType.getSimpleName());
+            }
+            if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).toPlainString();
+            } else if (value instanceof Number || value instanceof Boolean) {
+                return value.toString();
+            }
+            // strings, ISO dates and enums, whose toString() is the FlexiBee value as in EnumTransform
+            return quote(value.toString());
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.adleritech.flexibee.core.api.FlexibeeClient.FlexibeeException;
+import com.adleritech.flexibee.core.api.domain.AddressBookResponse;
+import com.adleritech.flexibee.core.api.domain.Bank;
+import com.adleritech.flexibee.core.api.domain.BankResponse;
+import com.adleritech.flexibee.core.api.domain.InternalDocument;
+import com.adleritech.flexibee.core.api.domain.InternalDocumentResponse;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceResponse;
+import com.adleritech.flexibee.core.api.domain.Obligation;
+import com.adleritech.flexibee.core.api.domain.ObligationResponse;
+import com.adleritech.flexibee.core.api.domain.Receivable;
+import com.adleritech.flexibee.core.api.domain.ReceivableResponse;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Non-blocking counterpart of {@link FlexibeeClient}, obtained via {@link FlexibeeClient#async()}.
+ * <p>
+ * Calls are enqueued on the OkHttp dispatcher, futures fail with the same {@link FlexibeeException} and
+ * {@link FlexibeeClient.NotFound} the blocking methods throw, or with {@link java.io.IOException} on transport errors.
+ * Futures are completed on dispatcher threads, so use the {@code *Async} stage methods for heavy continuations.
+ * Cancelling a future cancels the underlying HTTP call. Address book lookups share the cache of
+ * {@link FlexibeeClient#withAddressBookCache(AddressBookCache)} with the blocking ones.
+ */
+public class FlexibeeAsyncClient {
+
+    private final FlexibeeClient flexibeeClient;
+
+    private final String company;
+
+    private final FlexibeeClient.Api client;
+
+    FlexibeeAsyncClient(FlexibeeClient flexibeeClient, String company, FlexibeeClient.Api client) {
+        this.flexibeeClient = flexibeeClient;
+        this.company = company;
+        this.client = client;
+    }
+
+    public CompletableFuture<WinstromResponse> createInvoice(WinstromRequest winstromRequest) {
+        return enqueue(client.issueInvoice(company, winstromRequest), winstromRequest);
+    }
+
+    public CompletableFuture<WinstromResponse> createInternalDocument(WinstromRequest winstromRequest) {
+        return enqueue(client.createInternalDocument(company, winstromRequest), winstromRequest);
+    }
+
+    public CompletableFuture<WinstromResponse> createAddressBook(WinstromRequest winstromRequest) {
+        return enqueue(client.createAddressBook(company, winstromRequest), response -> {
+            flexibeeClient.handleErrorResponse(response, winstromRequest);
+            flexibeeClient.invalidateAddressBookCache();
+        });
+    }
+
+    public CompletableFuture<WinstromResponse> createOrder(WinstromRequest winstromRequest) {
+        return enqueue(client.createOrder(company, winstromRequest), winstromRequest);
+    }
+
+    public CompletableFuture<WinstromResponse> createBank(WinstromRequest winstromRequest) {
+        return enqueue(client.createBank(company, winstromRequest), winstromRequest);
+    }
+
+    public CompletableFuture<AddressBookResponse> findAddressBookByRegNo(String regNo) {
+        return flexibeeClient.cachedAddressBookAsync("in", regNo, () -> enqueue(client.findAddressBookByRegNo(company, regNo)));
+    }
+
+    public CompletableFuture<AddressBookResponse> findAddressBookByExternalId(String externalId) {
+        return flexibeeClient.cachedAddressBookAsync("ext", externalId, () -> enqueue(client.findAddressBookByExternalId(company, externalId)));
+    }
+
+    public CompletableFuture<ResponseBody> downloadIssuedInvoiceAsPdf(String id) {
+        return enqueue(client.downloadIssuedInvoiceAsPdf(company, id));
+    }
+
+    public CompletableFuture<IssuedInvoiceResponse> getIssuedInvoice(String id) {
+        return getIssuedInvoice(id, null);
+    }
+
+    public CompletableFuture<IssuedInvoiceResponse> getIssuedInvoice(String id, Projection<IssuedInvoice> projection) {
+        return enqueue(projection != null
+                ? client.getIssuedInvoice(company, id, projection.getDetail())
+                : client.getIssuedInvoice(company, id));
+    }
+
+    public CompletableFuture<InternalDocumentResponse> getInternalDocument(String id) {
+        return getInternalDocument(id, null);
+    }
+
+    public CompletableFuture<InternalDocumentResponse> getInternalDocument(String id, Projection<InternalDocument> projection) {
+        return enqueue(projection != null
+                ? client.getInternalDocument(company, id, projection.getDetail())
+                : client.getInternalDocument(company, id));
+    }
+
+    public CompletableFuture<BankResponse> getBank(String id) {
+        return getBank(id, null);
+    }
+
+    public CompletableFuture<BankResponse> getBank(String id, Projection<Bank> projection) {
+        return enqueue(projection != null
+                ? client.getBank(company, id, projection.getDetail())
+                : client.getBank(company, id));
+    }
+
+    public CompletableFuture<AddressBookResponse> findAddressBookByCode(String code) {
+        return flexibeeClient.cachedAddressBookAsync("kod", code, () -> enqueue(client.findAddressBookByCode(company, code)));
+    }
+
+    public CompletableFuture<WinstromResponse> updateAddressBook(String id, WinstromRequest request) {
+        return enqueue(client.updateAddressBook(company, id, request), response -> {
+            flexibeeClient.handleAddressBookUpdateErrorResponse(response, id, request);
+            flexibeeClient.invalidateAddressBookCache();
+        });
+    }
+
+    public CompletableFuture<AddressBookResponse> searchInAddressBook(String q) {
+        return enqueue(client.searchInAddressBook(company, q));
+    }
+
+    public CompletableFuture<WinstromResponse> createReceivable(WinstromRequest winstromRequest) {
+        return enqueue(client.createReceivable(company, winstromRequest), winstromRequest);
+    }
+
+    public CompletableFuture<ReceivableResponse> getReceivable(String id) {
+        return getReceivable(id, null);
+    }
+
+    public CompletableFuture<ReceivableResponse> getReceivable(String id, Projection<Receivable> projection) {
+        return enqueue(projection != null
+                ? client.getReceivable(company, id, projection.getDetail())
+                : client.getReceivable(company, id));
+    }
+
+    public CompletableFuture<WinstromResponse> createObligation(WinstromRequest winstromRequest) {
+        return enqueue(client.createObligation(company, winstromRequest), winstromRequest);
+    }
+
+    public CompletableFuture<ObligationResponse> getObligation(String id) {
+        return getObligation(id, null);
+    }
+
+    public CompletableFuture<ObligationResponse> getObligation(String id, Projection<Obligation> projection) {
+        return enqueue(projection != null
+                ? client.getObligation(company, id, projection.getDetail())
+                : client.getObligation(company, id));
+    }
+
+    public CompletableFuture<WinstromResponse> createReceivedInvoice(WinstromRequest winstromRequest) {
+        return enqueue(client.receivedInvoice(company, winstromRequest), winstromRequest);
+    }
+
+    public CompletableFuture<Void> removeInvoice(String invoiceId) {
+        return enqueue(client.removeInvoice(company, invoiceId));
+    }
+
+    /**
+     * Fetches one page of an evidence listing, records are parsed on the dispatcher thread.
+     */
+    <T> CompletableFuture<List<T>> listPage(Evidence<T> evidence, int start, int limit) {
+        return listPage(evidence, null, start, limit);
+    }
+
+    /**
+     * @param filter FlexiBee filter like {@code (id in (1,2))} or a record identifier, null for the whole evidence
+     */
+    <T> CompletableFuture<List<T>> listPage(Evidence<T> evidence, String filter, int start, int limit) {
+        return listPage(evidence, filter, null, start, limit);
+    }
+
+    /**
+     * @param projection properties to fetch, null for whole records
+     */
+    <T> CompletableFuture<List<T>> listPage(Evidence<T> evidence, String filter, Projection<T> projection, int start, int limit) {
+        String detail = projection != null ? projection.getDetail() : "full";
+        Call<ResponseBody> call = filter == null
+                ? client.list(company, evidence.getName(), start, limit, detail, "id@A")
+                : client.listFiltered(company, evidence.getName(), filter, start, limit, detail, "id@A");
+        CompletableFuture<ResponseBody> response = enqueue(call);
+        CompletableFuture<List<T>> page = new CompletableFuture<>();
+        response.whenComplete((body, throwable) -> {
+            if (throwable != null) {
+                page.completeExceptionally(throwable);
+                return;
+            }
+            if (page.isDone()) {
+                body.close();
+                return;
+            }
+            try {
+                page.complete(readAll(body, evidence.getType()));
+            } catch (IOException | RuntimeException e) {
+                page.completeExceptionally(e);
+            }
+        });
+        // cancelling the page does not cancel the stage it derives from, the call is released here
+        page.whenComplete((records, throwable) -> {
+            if (page.isCancelled()) {
+                response.cancel(true);
+            }
+        });
+        return page;
+    }
+
+    private static <T> List<T> readAll(ResponseBody body, Class<T> type) throws IOException {
+        List<T> records = new ArrayList<>();
+        try (WinstromReader<T> reader = WinstromReader.open(body.byteStream(), type)) {
+            reader.forEachRemaining(records::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return records;
+    }
+
+    private <T> CompletableFuture<T> enqueue(Call<T> call) {
+        return enqueue(call, (WinstromRequest) null);
+    }
+
+    private <T> CompletableFuture<T> enqueue(Call<T> call, WinstromRequest winstromRequest) {
+        return enqueue(call, response -> flexibeeClient.handleErrorResponse(response, winstromRequest));
+    }
+
+    private <T> CompletableFuture<T> enqueue(Call<T> call, ErrorHandler errorHandler) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                try {
+                    errorHandler.handle(response);
+                    T body = response.body();
+                    if (!future.complete(body) && body instanceof Closeable) {
+                        // cancelled meanwhile, nobody is going to read the body
+                        ((Closeable) body).close();
+                    }
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    @FunctionalInterface
+    private interface ErrorHandler {
+        void handle(Response response) throws FlexibeeException;
+    }
+}
@@ -1,17 +1,37 @@
 package com.adleritech.flexibee.core.api;
 
 import java.io.IOException;
-import java.lang.annotation.Annotation;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.net.ssl.HostnameVerifier;
 
+import com.adleritech.flexibee.core.api.domain.AddressBook;
 import com.adleritech.flexibee.core.api.domain.AddressBookResponse;
+import com.adleritech.flexibee.core.api.domain.Bank;
 import com.adleritech.flexibee.core.api.domain.BankResponse;
+import com.adleritech.flexibee.core.api.domain.InternalDocument;
 import com.adleritech.flexibee.core.api.domain.InternalDocumentResponse;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
 import com.adleritech.flexibee.core.api.domain.IssuedInvoiceResponse;
+import com.adleritech.flexibee.core.api.domain.Obligation;
 import com.adleritech.flexibee.core.api.domain.ObligationResponse;
+import com.adleritech.flexibee.core.api.domain.Receivable;
 import com.adleritech.flexibee.core.api.domain.ReceivableResponse;
 import com.adleritech.flexibee.core.api.domain.WinstromRequest;
 import com.adleritech.flexibee.core.api.domain.WinstromResponse;
@@ -21,43 +41,121 @@ import lombok.NonNull;
 import okhttp3.ResponseBody;
 import okio.Buffer;
 import okio.BufferedSource;
+import okio.Okio;
 import retrofit2.Call;
 import retrofit2.Converter;
 import retrofit2.Response;
-import retrofit2.Retrofit;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 public class FlexibeeClient {
 
+    private static final int DEFAULT_PAGE_SIZE = 500;
+
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
     private final String company;
 
+    /**
+     * Base url and user of the client, so one address book cache can serve many FlexiBee instances and users.
+     */
+    private final String origin;
+
     @Getter
     private final Api client;
 
     private final Converter<ResponseBody, WinstromResponse> winstromResponseConverter;
 
+    private final SingleFlight singleFlight;
+
+    /**
+     * Whether lookups go through the {@link #singleFlight}, see {@link #withRequestCoalescing()}.
+     */
+    private final boolean coalescing;
+
+    private final AddressBookCache addressBookCache;
+
+    private final FlexibeeAsyncClient async;
+
     public static FlexibeeClient create(String username, String password, String company, String apiBaseUrl) {
         return create(username, password, company, apiBaseUrl, null);
     }
 
+    /**
+     * Creates a standalone client with its own connection pool, use {@link FlexibeeClientRegistry} to share
+     * the transport among many companies and credentials.
+     */
     public static FlexibeeClient create(String username, String password, String company, String apiBaseUrl, SSLConfig sslConfig) {
-        RetrofitClientFactory retrofitClientFactory = new RetrofitClientFactory();
-        Retrofit retrofit = retrofitClientFactory.createRetrofit(apiBaseUrl, username, password, sslConfig);
-        FlexibeeClient.Api api = retrofitClientFactory.createService(FlexibeeClient.Api.class, retrofit);
-        Converter<ResponseBody, WinstromResponse> errorConverter = retrofit.responseBodyConverter(WinstromResponse.class, new Annotation[0]);
-        return new FlexibeeClient(company, api, errorConverter);
+        return create(username, password, company, apiBaseUrl, sslConfig, TransportOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a standalone client with its own tuned transport.
+     */
+    public static FlexibeeClient create(String username, String password, String company, String apiBaseUrl, SSLConfig sslConfig,
+                                        TransportOptions transportOptions) {
+        return FlexibeeClientRegistry.builder().sslConfig(sslConfig).transportOptions(transportOptions).build()
+                .client(username, password, company, apiBaseUrl);
     }
 
 
     FlexibeeClient(String company, Api retrofitApi, Converter<ResponseBody, WinstromResponse> winstromResponseConverter) {
+        this(company, retrofitApi, winstromResponseConverter, new SingleFlight());
+    }
+
+    FlexibeeClient(String company, Api retrofitApi, Converter<ResponseBody, WinstromResponse> winstromResponseConverter,
+                   SingleFlight singleFlight) {
+        this("", company, retrofitApi, winstromResponseConverter, singleFlight);
+    }
+
+    FlexibeeClient(String origin, String company, Api retrofitApi, Converter<ResponseBody, WinstromResponse> winstromResponseConverter,
+                   SingleFlight singleFlight) {
+        this(origin, company, retrofitApi, winstromResponseConverter, singleFlight, false, null);
+    }
+
+    private FlexibeeClient(String origin, String company, Api retrofitApi, Converter<ResponseBody, WinstromResponse> winstromResponseConverter,
+                           SingleFlight singleFlight, boolean coalescing, AddressBookCache addressBookCache) {
+        this.origin = origin;
         this.company = company;
         this.client = retrofitApi;
         this.winstromResponseConverter = winstromResponseConverter;
+        this.singleFlight = singleFlight;
+        this.coalescing = coalescing;
+        this.addressBookCache = addressBookCache;
+        this.async = new FlexibeeAsyncClient(this, company, retrofitApi);
+    }
+
+    /**
+     * Returns view of this client answering address book lookups ({@link #findAddressBookByRegNo(String)},
+     * {@link #findAddressBookByCode(String)}, {@link #findAddressBookfindAddressBookByExternalId(String)} and their
+     * {@link #async()} counterparts) from the cache.
+     * Successful {@link #createAddressBook(WinstromRequest)} and {@link #updateAddressBook(String, WinstromRequest)}
+     * calls through the view, blocking or {@link #async()}, invalidate cached lookups of the company.
+     */
+    public FlexibeeClient withAddressBookCache(AddressBookCache addressBookCache) {
+        return new FlexibeeClient(origin, company, client, winstromResponseConverter, singleFlight, coalescing, addressBookCache);
+    }
+
+    /**
+     * Returns view of this client coalescing concurrent identical blocking lookups ({@code get*} by id,
+     * {@link #searchInAddressBook(String)} and the address book finders) into one HTTP request. Callers arriving while
+     * an identical call is in flight wait for it and get the very same response object or exception instance,
+     * which must therefore be treated as read-only.
+     */
+    public FlexibeeClient withRequestCoalescing() {
+        return new FlexibeeClient(origin, company, client, winstromResponseConverter, singleFlight, true, addressBookCache);
+    }
+
+    /**
+     * Non-blocking view of this client, operations return {@link java.util.concurrent.CompletableFuture}s.
+     */
+    public FlexibeeAsyncClient async() {
+        return async;
     }
 
     public WinstromResponse createInvoice(WinstromRequest winstromRequest) throws IOException, FlexibeeException {
@@ -75,6 +173,7 @@ public class FlexibeeClient {
     public WinstromResponse createAddressBook(WinstromRequest winstromRequest) throws IOException, FlexibeeException {
         Response<WinstromResponse> response = client.createAddressBook(company, winstromRequest).execute();
         handleErrorResponse(response, winstromRequest);
+        invalidateAddressBookCache();
         return response.body();
     }
 
@@ -95,7 +194,7 @@ public class FlexibeeClient {
         handleErrorResponse(response, null);
     }
 
-    private void handleErrorResponse(Response response, WinstromRequest winstromRequest) throws FlexibeeException {
+    void handleErrorResponse(Response response, WinstromRequest winstromRequest) throws FlexibeeException {
         if (!response.isSuccessful()) {
             String rawErrorResponse = readRawResponse(response.errorBody());
             String message = "Flexibee error, status code: " + response.code() + ", rawResponse: " + rawErrorResponse;
@@ -138,15 +237,52 @@ public class FlexibeeClient {
     }
 
     public AddressBookResponse findAddressBookByRegNo(String regNo) throws IOException, FlexibeeException {
-        Response<AddressBookResponse> response = client.findAddressBookByRegNo(company, regNo).execute();
-        handleErrorResponse(response);
-        return response.body();
+        return cachedAddressBook("in", regNo, () -> {
+            Response<AddressBookResponse> response = client.findAddressBookByRegNo(company, regNo).execute();
+            handleErrorResponse(response);
+            return response.body();
+        });
     }
 
     public AddressBookResponse findAddressBookfindAddressBookByExternalId(String externalId) throws IOException, FlexibeeException {
-        Response<AddressBookResponse> response = client.findAddressBookByExternalId(company, externalId).execute();
-        handleErrorResponse(response);
-        return response.body();
+        return cachedAddressBook("ext", externalId, () -> {
+            Response<AddressBookResponse> response = client.findAddressBookByExternalId(company, externalId).execute();
+            handleErrorResponse(response);
+            return response.body();
+        });
+    }
+
+    private AddressBookResponse cachedAddressBook(String lookup, String value, FlexibeeSupplier<AddressBookResponse> call) throws IOException, FlexibeeException {
+        FlexibeeSupplier<AddressBookResponse> coalesced = () -> coalesce("adresar/" + lookup, value, call);
+        if (addressBookCache == null) {
+            return coalesced.get();
+        }
+        return addressBookCache.get(origin, company, lookup, value, coalesced);
+    }
+
+    CompletableFuture<AddressBookResponse> cachedAddressBookAsync(String lookup, String value,
+                                                                  Supplier<CompletableFuture<AddressBookResponse>> call) {
+        if (addressBookCache == null) {
+            return call.get();
+        }
+        return addressBookCache.getAsync(origin, company, lookup, value, call);
+    }
+
+    /**
+     * With {@link #withRequestCoalescing()} concurrent calls of the same endpoint and key share one HTTP request,
+     * and so also the returned object.
+     */
+    private <T> T coalesce(String endpoint, Object key, FlexibeeSupplier<T> call) throws IOException, FlexibeeException {
+        if (!coalescing) {
+            return call.get();
+        }
+        return singleFlight.execute(Arrays.asList(company, endpoint, key), call);
+    }
+
+    void invalidateAddressBookCache() {
+        if (addressBookCache != null) {
+            addressBookCache.invalidate(origin, company);
+        }
     }
 
     public ResponseBody downloadIssuedInvoiceAsPdf(String id) throws IOException, FlexibeeException {
@@ -155,32 +291,130 @@ public class FlexibeeClient {
         return response.body();
     }
 
-    public IssuedInvoiceResponse getIssuedInvoice(String id) throws IOException, FlexibeeException {
-        Response<IssuedInvoiceResponse> response = client.getIssuedInvoice(company, id).execute();
+    /**
+     * Streams the PDF of an issued invoice into a file, replacing its content. The document is never held on the heap.
+     * It is downloaded into a temporary file next to the target, which is moved in place only when complete, so
+     * a failed download leaves the previous content intact.
+     */
+    public DownloadResult downloadIssuedInvoicePdf(String id, java.nio.file.Path target) throws IOException, FlexibeeException {
+        java.nio.file.Path absolute = target.toAbsolutePath();
+        java.nio.file.Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            DownloadResult result;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                result = downloadIssuedInvoicePdf(id, channel);
+                channel.force(false);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return result;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Streams the PDF of an issued invoice into a channel through one reused direct buffer, the channel is left open.
+     */
+    public DownloadResult downloadIssuedInvoicePdf(String id, WritableByteChannel target) throws IOException, FlexibeeException {
+        long start = System.nanoTime();
+        Response<ResponseBody> response = client.streamIssuedInvoicePdf(company, id).execute();
         handleErrorResponse(response);
-        return response.body();
+        try (ResponseBody body = response.body()) {
+            BufferedSource source = body.source();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE);
+            long bytes = 0;
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    bytes += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return new DownloadResult(bytes, Duration.ofNanos(System.nanoTime() - start));
+        }
     }
 
-    public InternalDocumentResponse getInternalDocument(String id) throws IOException, FlexibeeException {
-        Response<InternalDocumentResponse> response = client.getInternalDocument(company, id).execute();
+    /**
+     * Streams the PDF of an issued invoice into an output stream segment by segment, the stream is left open.
+     */
+    public DownloadResult downloadIssuedInvoicePdf(String id, OutputStream target) throws IOException, FlexibeeException {
+        long start = System.nanoTime();
+        Response<ResponseBody> response = client.streamIssuedInvoicePdf(company, id).execute();
         handleErrorResponse(response);
-        return response.body();
+        try (ResponseBody body = response.body()) {
+            long bytes = body.source().readAll(Okio.sink(target));
+            target.flush();
+            return new DownloadResult(bytes, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    public IssuedInvoiceResponse getIssuedInvoice(String id) throws IOException, FlexibeeException {
+        return getIssuedInvoice(id, null);
+    }
+
+    /**
+     * @param projection properties to fetch, null for the whole record
+     */
+    public IssuedInvoiceResponse getIssuedInvoice(String id, Projection<IssuedInvoice> projection) throws IOException, FlexibeeException {
+        String detail = projection != null ? projection.getDetail() : null;
+        return coalesce("faktura-vydana", Arrays.asList(id, detail), () -> {
+            Call<IssuedInvoiceResponse> call = detail != null ? client.getIssuedInvoice(company, id, detail) : client.getIssuedInvoice(company, id);
+            Response<IssuedInvoiceResponse> response = call.execute();
+            handleErrorResponse(response);
+            return response.body();
+        });
+    }
+
+    public InternalDocumentResponse getInternalDocument(String id) throws IOException, FlexibeeException {
+        return getInternalDocument(id, null);
+    }
+
+    /**
+     * @param projection properties to fetch, null for the whole record
+     */
+    public InternalDocumentResponse getInternalDocument(String id, Projection<InternalDocument> projection) throws IOException, FlexibeeException {
+        String detail = projection != null ? projection.getDetail() : null;
+        return coalesce("interni-doklad", Arrays.asList(id, detail), () -> {
+            Call<InternalDocumentResponse> call = detail != null ? client.getInternalDocument(company, id, detail) : client.getInternalDocument(company, id);
+            Response<InternalDocumentResponse> response = call.execute();
+            handleErrorResponse(response);
+            return response.body();
+        });
     }
 
     public BankResponse getBank(String id) throws IOException, FlexibeeException {
-        Response<BankResponse> response = client.getBank(company, id).execute();
-        handleErrorResponse(response);
-        return response.body();
+        return getBank(id, null);
+    }
+
+    /**
+     * @param projection properties to fetch, null for the whole record
+     */
+    public BankResponse getBank(String id, Projection<Bank> projection) throws IOException, FlexibeeException {
+        String detail = projection != null ? projection.getDetail() : null;
+        return coalesce("banka", Arrays.asList(id, detail), () -> {
+            Call<BankResponse> call = detail != null ? client.getBank(company, id, detail) : client.getBank(company, id);
+            Response<BankResponse> response = call.execute();
+            handleErrorResponse(response);
+            return response.body();
+        });
     }
 
     public AddressBookResponse findAddressBookByCode(String code) throws IOException, FlexibeeException {
-        Response<AddressBookResponse> response = client.findAddressBookByCode(company, code).execute();
-        handleErrorResponse(response);
-        return response.body();
+        return cachedAddressBook("kod", code, () -> {
+            Response<AddressBookResponse> response = client.findAddressBookByCode(company, code).execute();
+            handleErrorResponse(response);
+            return response.body();
+        });
     }
 
     public WinstromResponse updateAddressBook(String id, WinstromRequest request) throws IOException, FlexibeeException {
         Response<WinstromResponse> response = client.updateAddressBook(company, id, request).execute();
+        handleAddressBookUpdateErrorResponse(response, id, request);
+        invalidateAddressBookCache();
+        return response.body();
+    }
+
+    void handleAddressBookUpdateErrorResponse(Response response, String id, WinstromRequest request) throws FlexibeeException {
         if (!response.isSuccessful()) {
             String errorBody = getErrorBody(response);
             throw new FlexibeeException("Address book update failed for " +
@@ -189,15 +423,151 @@ public class FlexibeeClient {
                     "responseBody=" + errorBody + "," +
                     "requestBody=" + request.toString());
         }
-        return response.body();
     }
 
     public AddressBookResponse searchInAddressBook(String q) throws IOException, FlexibeeException {
-        Response<AddressBookResponse> response = client.searchInAddressBook(company, q).execute();
+        return coalesce("adresar?q", q, () -> {
+            Response<AddressBookResponse> response = client.searchInAddressBook(company, q).execute();
+            handleErrorResponse(response);
+            return response.body();
+        });
+    }
+
+    /**
+     * Streaming variant of {@link #searchInAddressBook(String)}, records are parsed one by one while the response
+     * is read. The stream must be closed to release the connection.
+     */
+    public Stream<AddressBook> streamAddressBook(String q) throws IOException, FlexibeeException {
+        Response<ResponseBody> response = client.streamAddressBook(company, q).execute();
+        handleErrorResponse(response);
+        return WinstromReader.open(response.body().byteStream(), AddressBook.class).stream();
+    }
+
+    /**
+     * Lazily pages through all records of the evidence, fetching the next page in the background.
+     */
+    public <T> PagedIterator<T> list(Evidence<T> evidence) {
+        return list(evidence, DEFAULT_PAGE_SIZE);
+    }
+
+    public <T> PagedIterator<T> list(Evidence<T> evidence, int pageSize) {
+        return list(evidence, null, pageSize);
+    }
+
+    /**
+     * @param projection properties to fetch, null for whole records
+     */
+    public <T> PagedIterator<T> list(Evidence<T> evidence, Projection<T> projection, int pageSize) {
+        return list(evidence, null, projection, pageSize);
+    }
+
+    /**
+     * Lazily pages through the records matching the filter, filtering is done by the server.
+     */
+    public <T> PagedIterator<T> list(Evidence<T> evidence, Filter<T> filter) {
+        return list(evidence, filter, null, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param filter     null for all records
+     * @param projection properties to fetch, null for whole records
+     */
+    public <T> PagedIterator<T> list(Evidence<T> evidence, Filter<T> filter, Projection<T> projection, int pageSize) {
+        String path = filter != null ? filter.toPath() : null;
+        return new PagedIterator<>(start -> async.listPage(evidence, path, projection, start, pageSize), pageSize);
+    }
+
+    /**
+     * Counts all records of the evidence without transferring them.
+     */
+    public long count(Evidence<?> evidence) throws IOException, FlexibeeException {
+        return count(evidence, null);
+    }
+
+    /**
+     * Counts the records matching the filter without transferring them.
+     *
+     * @param filter null for all records
+     */
+    public <T> long count(Evidence<T> evidence, Filter<T> filter) throws IOException, FlexibeeException {
+        Response<ResponseBody> response = (filter != null
+                ? client.countFiltered(company, evidence.getName(), filter.toPath())
+                : client.count(company, evidence.getName())).execute();
+        handleErrorResponse(response);
+        String rowCount;
+        try (WinstromReader<?> reader = WinstromReader.open(response.body().byteStream(), evidence.getType())) {
+            reader.hasNext();
+            rowCount = reader.getRootAttributes().get("rowCount");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (rowCount == null) {
+            throw new IOException("FlexiBee response of " + evidence.getName() + " has no rowCount");
+        }
+        return Long.parseLong(rowCount);
+    }
+
+    /**
+     * Totals of the evidence computed by FlexiBee, no records are transferred.
+     *
+     * @param filter null for all records
+     */
+    public <T> Aggregate<T> aggregate(Evidence<T> evidence, Filter<T> filter) throws IOException, FlexibeeException {
+        Response<ResponseBody> response = (filter != null
+                ? client.sumFiltered(company, evidence.getName(), filter.toPath())
+                : client.sum(company, evidence.getName())).execute();
+        handleErrorResponse(response);
+        SumReader sums;
+        try (ResponseBody body = response.body()) {
+            sums = SumReader.read(body.byteStream());
+        }
+        // older FlexiBee versions ignore add-row-count on $sum
+        long rowCount = sums.getRowCount().isPresent() ? sums.getRowCount().getAsLong() : count(evidence, filter);
+        return new Aggregate<>(evidence.getType(), rowCount, sums.getSums());
+    }
+
+    /**
+     * Totals per currency, one request each, as FlexiBee does not group sums. The evidence has to have
+     * the {@code currency} ({@code mena}) property.
+     *
+     * @param currencies currency codes, e.g. {@code CZK}
+     */
+    public <T> Map<String, Aggregate<T>> aggregateByCurrency(Evidence<T> evidence, Filter<T> filter, String... currencies)
+            throws IOException, FlexibeeException {
+        Filter.Property<T> currency = Filter.where(evidence, "currency");
+        Map<String, Aggregate<T>> aggregates = new LinkedHashMap<>();
+        for (String code : currencies) {
+            Filter<T> byCurrency = currency.eq("code:" + code);
+            aggregates.put(code, aggregate(evidence, filter != null ? filter.and(byCurrency) : byCurrency));
+        }
+        return aggregates;
+    }
+
+    /**
+     * Creates consumer of the changes API resuming from the given checkpoint. The changes API has to be enabled
+     * for the company.
+     */
+    public ChangeFeed changeFeed(ChangeCheckpoint checkpoint) {
+        return new ChangeFeed(this, checkpoint);
+    }
+
+    ResponseBody fetchChanges(long start, int limit) throws IOException, FlexibeeException {
+        Response<ResponseBody> response = client.changes(company, start, limit).execute();
         handleErrorResponse(response);
         return response.body();
     }
 
+    /**
+     * Creates loader batching by-id lookups of the evidence requested within a short window into filtered requests.
+     */
+    public <T> BatchLoader<T> batchLoader(Evidence<T> evidence) {
+        return new BatchLoader<>(evidence, async, BatchLoader.DEFAULT_MAX_BATCH_SIZE, BatchLoader.DEFAULT_WINDOW);
+    }
+
+    public <T> BatchLoader<T> batchLoader(Evidence<T> evidence, int maxBatchSize, Duration window) {
+        return new BatchLoader<>(evidence, async, maxBatchSize, window);
+    }
+
     public WinstromResponse createReceivable(WinstromRequest winstromRequest)  throws IOException, FlexibeeException {
         Response<WinstromResponse> response = client.createReceivable(company, winstromRequest).execute();
         handleErrorResponse(response, winstromRequest);
@@ -205,9 +575,20 @@ public class FlexibeeClient {
     }
 
     public ReceivableResponse getReceivable(String id) throws IOException, FlexibeeException {
-        Response<ReceivableResponse> response = client.getReceivable(company, id).execute();
-        handleErrorResponse(response);
-        return response.body();
+        return getReceivable(id, null);
+    }
+
+    /**
+     * @param projection properties to fetch, null for the whole record
+     */
+    public ReceivableResponse getReceivable(String id, Projection<Receivable> projection) throws IOException, FlexibeeException {
+        String detail = projection != null ? projection.getDetail() : null;
+        return coalesce("pohledavka", Arrays.asList(id, detail), () -> {
+            Call<ReceivableResponse> call = detail != null ? client.getReceivable(company, id, detail) : client.getReceivable(company, id);
+            Response<ReceivableResponse> response = call.execute();
+            handleErrorResponse(response);
+            return response.body();
+        });
     }
 
     public WinstromResponse createObligation(WinstromRequest winstromRequest)  throws IOException, FlexibeeException {
@@ -217,9 +598,20 @@ public class FlexibeeClient {
     }
 
     public ObligationResponse getObligation(String id) throws IOException, FlexibeeException {
-        Response<ObligationResponse> response = client.getObligation(company, id).execute();
-        handleErrorResponse(response);
-        return response.body();
+        return getObligation(id, null);
+    }
+
+    /**
+     * @param projection properties to fetch, null for the whole record
+     */
+    public ObligationResponse getObligation(String id, Projection<Obligation> projection) throws IOException, FlexibeeException {
+        String detail = projection != null ? projection.getDetail() : null;
+        return coalesce("zavazek", Arrays.asList(id, detail), () -> {
+            Call<ObligationResponse> call = detail != null ? client.getObligation(company, id, detail) : client.getObligation(company, id);
+            Response<ObligationResponse> response = call.execute();
+            handleErrorResponse(response);
+            return response.body();
+        });
     }
 
     public WinstromResponse createReceivedInvoice(WinstromRequest winstromRequest) throws IOException, FlexibeeException {
@@ -247,6 +639,13 @@ public class FlexibeeClient {
         @GET("/c/{company}/faktura-vydana/{id}.xml")
         Call<IssuedInvoiceResponse> getIssuedInvoice(@Path("company") String company, @Path("id") String id);
 
+        @GET("/c/{company}/faktura-vydana/{id}.xml")
+        Call<IssuedInvoiceResponse> getIssuedInvoice(@Path("company") String company, @Path("id") String id, @Query("detail") String detail);
+
+        @Streaming
+        @GET("/c/{company}/faktura-vydana/{id}.pdf")
+        Call<ResponseBody> streamIssuedInvoicePdf(@Path("company") String company, @Path("id") String id);
+
         @DELETE("/c/{company}/faktura-vydana/{id}.pdf")
         Call<Void> removeInvoice(@Path("company") String company, @Path("id") String id);
 
@@ -256,12 +655,18 @@ public class FlexibeeClient {
         @GET("/c/{company}/interni-doklad/{id}.xml")
         Call<InternalDocumentResponse> getInternalDocument(@Path("company") String company, @Path("id") String id);
 
+        @GET("/c/{company}/interni-doklad/{id}.xml")
+        Call<InternalDocumentResponse> getInternalDocument(@Path("company") String company, @Path("id") String id, @Query("detail") String detail);
+
         @PUT("/c/{company}/pohledavka.xml")
         Call<WinstromResponse> createReceivable(@Path("company") String company, @Body WinstromRequest request);
 
         @GET("/c/{company}/pohledavka/{id}.xml")
         Call<ReceivableResponse> getReceivable(@Path("company") String company, @Path("id") String id);
 
+        @GET("/c/{company}/pohledavka/{id}.xml")
+        Call<ReceivableResponse> getReceivable(@Path("company") String company, @Path("id") String id, @Query("detail") String detail);
+
         @GET("c/{company}/adresar/in:{regNo}.xml")
         Call<AddressBookResponse> findAddressBookByRegNo(@Path("company") String company, @Path("regNo") String regNo);
 
@@ -274,6 +679,42 @@ public class FlexibeeClient {
         @GET("/c/{company}/adresar.xml")
         Call<AddressBookResponse> searchInAddressBook(@Path("company") String company, @Query("q") String q);
 
+        @Streaming
+        @GET("/c/{company}/adresar.xml")
+        Call<ResponseBody> streamAddressBook(@Path("company") String company, @Query("q") String q);
+
+        @Streaming
+        @GET("/c/{company}/{evidence}.xml")
+        Call<ResponseBody> list(@Path("company") String company, @Path("evidence") String evidence,
+                                @Query("start") int start, @Query("limit") int limit,
+                                @Query("detail") String detail, @Query("order") String order);
+
+        @Streaming
+        @GET("/c/{company}/changes.xml")
+        Call<ResponseBody> changes(@Path("company") String company, @Query("start") long start, @Query("limit") int limit);
+
+        @Streaming
+        @GET("/c/{company}/{evidence}/{filter}.xml")
+        Call<ResponseBody> listFiltered(@Path("company") String company, @Path("evidence") String evidence, @Path("filter") String filter,
+                                        @Query("start") int start, @Query("limit") int limit,
+                                        @Query("detail") String detail, @Query("order") String order);
+
+        @Streaming
+        @GET("/c/{company}/{evidence}/$sum.xml?add-row-count=true")
+        Call<ResponseBody> sum(@Path("company") String company, @Path("evidence") String evidence);
+
+        @Streaming
+        @GET("/c/{company}/{evidence}/{filter}/$sum.xml?add-row-count=true")
+        Call<ResponseBody> sumFiltered(@Path("company") String company, @Path("evidence") String evidence, @Path("filter") String filter);
+
+        @Streaming
+        @GET("/c/{company}/{evidence}.xml?add-row-count=true&limit=1&detail=id")
+        Call<ResponseBody> count(@Path("company") String company, @Path("evidence") String evidence);
+
+        @Streaming
+        @GET("/c/{company}/{evidence}/{filter}.xml?add-row-count=true&limit=1&detail=id")
+        Call<ResponseBody> countFiltered(@Path("company") String company, @Path("evidence") String evidence, @Path("filter") String filter);
+
         @PUT("/c/{company}/adresar/{id}.xml")
         Call<WinstromResponse> updateAddressBook(@Path("company") String company, @Path("id") String id, @Body WinstromRequest request);
 
@@ -289,15 +730,21 @@ public class FlexibeeClient {
         @GET("/c/{company}/banka/{id}.xml")
         Call<BankResponse> getBank(@Path("company") String company, @Path("id") String id);
 
+        @GET("/c/{company}/banka/{id}.xml")
+        Call<BankResponse> getBank(@Path("company") String company, @Path("id") String id, @Query("detail") String detail);
+
         @PUT("/c/{company}/zavazek.xml")
         Call<WinstromResponse> createObligation(@Path("company") String company, @Body WinstromRequest request);
 
         @GET("/c/{company}/zavazek/{id}.xml")
         Call<ObligationResponse> getObligation(@Path("company") String company, @Path("id") String id);
+
+        @GET("/c/{company}/zavazek/{id}.xml")
+        Call<ObligationResponse> getObligation(@Path("company") String company, @Path("id") String id, @Query("detail") String detail);
     }
 
     public static class NotFound extends FlexibeeException {
-        private NotFound(String message, WinstromRequest request, String rawErrorResponse) {
+        NotFound(String message, WinstromRequest request, String rawErrorResponse) {
             super(message, 404, request, null, rawErrorResponse);
         }
     }
@@ -0,0 +1,98 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.Closeable;
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.adleritech.flexibee.core.api.FlexibeeClient.SSLConfig;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.ToString;
+import lombok.Value;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Hands out {@link FlexibeeClient} views that share one transport (connection pool, dispatcher) and one XML serializer.
+ * <p>
+ * Retrofit proxies are created once per base url and credentials, so asking for a client of another company
+ * with already known credentials is just an object allocation. Instances are thread safe and meant to be long living.
+ */
+public class FlexibeeClientRegistry implements Closeable {
+
+    private final RetrofitClientFactory retrofitClientFactory;
+
+    private final ConcurrentMap<EndpointKey, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @param httpLogLevel         detail of HTTP traffic logged at DEBUG level, {@link HttpLogLevel#BODY} by default
+     * @param maxLoggedBodyBytes   how much of a textual body is logged, 4 KiB by default
+     * @param metrics              receives measurements of every call, none by default
+     * @param retryPolicy          retries of idempotent calls, {@link RetryPolicy#DEFAULT} by default
+     * @param globalLimit          limit of all requests of the registry, unlimited by default
+     * @param defaultCompanyLimit  limit of requests of each company without its own limit, unlimited by default
+     * @param companyLimits        limits of particular companies
+     * @param circuitBreakerPolicy fails fast on unhealthy FlexiBee instances and companies, disabled by default
+     * @param gzipMinBytes         request bodies of at least this size are sent gzipped, disabled by default
+     * @param transportOptions     connection pool, timeouts and dispatcher limits, {@link TransportOptions#DEFAULT} by default
+     */
+    @Builder
+    private FlexibeeClientRegistry(SSLConfig sslConfig, HttpLogLevel httpLogLevel, Integer maxLoggedBodyBytes, FlexibeeMetrics metrics,
+                                   RetryPolicy retryPolicy, RateLimit globalLimit, RateLimit defaultCompanyLimit,
+                                   @Singular Map<String, RateLimit> companyLimits, CircuitBreakerPolicy circuitBreakerPolicy,
+                                   Integer gzipMinBytes, TransportOptions transportOptions) {
+        this.retrofitClientFactory = new RetrofitClientFactory(sslConfig,
+                httpLogLevel != null ? httpLogLevel : HttpLogLevel.BODY,
+                maxLoggedBodyBytes != null ? maxLoggedBodyBytes : HttpLogInterceptor.DEFAULT_MAX_BODY_BYTES,
+                metrics != null ? metrics : FlexibeeMetrics.NONE,
+                retryPolicy != null ? retryPolicy : RetryPolicy.DEFAULT,
+                new Governor(globalLimit, defaultCompanyLimit, companyLimits),
+                circuitBreakerPolicy,
+                gzipMinBytes,
+                transportOptions != null ? transportOptions : TransportOptions.DEFAULT);
+    }
+
+    public static FlexibeeClientRegistry create() {
+        return builder().build();
+    }
+
+    public FlexibeeClient client(String username, String password, String company, String apiBaseUrl) {
+        Endpoint endpoint = endpoints.computeIfAbsent(new EndpointKey(apiBaseUrl, username, password), this::createEndpoint);
+        return new FlexibeeClient(username + "@" + apiBaseUrl, company, endpoint.getApi(), endpoint.getErrorConverter(), endpoint.getSingleFlight());
+    }
+
+    /**
+     * Shuts down the shared dispatcher and evicts pooled connections, clients handed out before become unusable.
+     */
+    @Override
+    public void close() {
+        endpoints.clear();
+        retrofitClientFactory.shutdown();
+    }
+
+    private Endpoint createEndpoint(EndpointKey key) {
+        Retrofit retrofit = retrofitClientFactory.createRetrofit(key.getApiBaseUrl(), key.getUsername(), key.getPassword());
+        FlexibeeClient.Api api = retrofitClientFactory.createService(FlexibeeClient.Api.class, retrofit);
+        Converter<ResponseBody, WinstromResponse> errorConverter = retrofit.responseBodyConverter(WinstromResponse.class, new Annotation[0]);
+        return new Endpoint(api, errorConverter, new SingleFlight());
+    }
+
+    @Value
+    private static class EndpointKey {
+        String apiBaseUrl;
+        String username;
+        @ToString.Exclude
+        String password;
+    }
+
+    @Value
+    private static class Endpoint {
+        FlexibeeClient.Api api;
+        Converter<ResponseBody, WinstromResponse> errorConverter;
+        SingleFlight singleFlight;
+    }
+}
@@ -0,0 +1,37 @@
+package com.adleritech.flexibee.core.api;
+
+/**
+ * Receives measurements of FlexiBee calls, register it by {@link FlexibeeClientRegistry.FlexibeeClientRegistryBuilder#metrics}.
+ * Adapt it to the metrics library of the application or use {@link InMemoryFlexibeeMetrics}.
+ * <p>
+ * Methods are invoked on OkHttp and caller threads while the call is being finished, so they must be thread safe
+ * and fast. All methods do nothing by default.
+ */
+public interface FlexibeeMetrics {
+
+    FlexibeeMetrics NONE = new FlexibeeMetrics() {
+    };
+
+    /**
+     * A call finished - successfully, with an error status, or failed on I/O.
+     */
+    default void callCompleted(CallMetrics call) {
+    }
+
+    /**
+     * An attempt of an idempotent call failed and the call is going to be retried.
+     *
+     * @param attempt    the failed attempt, starting with 1
+     * @param statusCode status of the failed attempt, zero when it failed on I/O
+     */
+    default void callRetried(String endpoint, int attempt, int statusCode) {
+    }
+
+    /**
+     * A call got its rate and concurrency permit, see {@link RateLimit}.
+     *
+     * @param waitNanos time the call was queued
+     */
+    default void permitWaited(String endpoint, long waitNanos) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+
+import com.adleritech.flexibee.core.api.FlexibeeClient.FlexibeeException;
+
+/**
+ * Blocking FlexiBee call, used to wrap calls into caching and request coalescing.
+ */
+@FunctionalInterface
+interface FlexibeeSupplier<T> {
+    T get() throws IOException, FlexibeeException;
+}
@@ -0,0 +1,164 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * Makes every {@link Call} take a {@link Governor} permit before it is sent. {@link Call#execute()} blocks for
+ * the permit, {@link Call#enqueue(Callback)} waits in the queue without occupying a thread. Time spent waiting
+ * is reported by {@link FlexibeeMetrics#permitWaited(String, long)}.
+ */
+class GovernedCallAdapterFactory extends CallAdapter.Factory {
+
+    private final Governor governor;
+
+    private final FlexibeeMetrics metrics;
+
+    GovernedCallAdapterFactory(Governor governor, FlexibeeMetrics metrics) {
+        this.governor = governor;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class || !(returnType instanceof ParameterizedType)) {
+            return null;
+        }
+        Type responseType = getParameterUpperBound(0, (ParameterizedType) returnType);
+        return new CallAdapter<Object, Call<Object>>() {
+            @Override
+            public Type responseType() {
+                return responseType;
+            }
+
+            @Override
+            public Call<Object> adapt(Call<Object> call) {
+                return new GovernedCall<>(call, governor, metrics);
+            }
+        };
+    }
+
+    static class GovernedCall<T> implements Call<T> {
+
+        private final Call<T> delegate;
+
+        private final Governor governor;
+
+        private final FlexibeeMetrics metrics;
+
+        private volatile CompletableFuture<Governor.Permit> permit;
+
+        private volatile boolean canceled;
+
+        GovernedCall(Call<T> delegate, Governor governor, FlexibeeMetrics metrics) {
+            this.delegate = delegate;
+            this.governor = governor;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            Governor.Permit granted = await(acquire());
+            try {
+                return delegate.execute();
+            } finally {
+                granted.release();
+            }
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            acquire().whenComplete((granted, failure) -> {
+                if (failure != null) {
+                    callback.onFailure(this, new IOException("Canceled"));
+                    return;
+                }
+                delegate.enqueue(new Callback<T>() {
+                    @Override
+                    public void onResponse(Call<T> call, Response<T> response) {
+                        granted.release();
+                        callback.onResponse(GovernedCall.this, response);
+                    }
+
+                    @Override
+                    public void onFailure(Call<T> call, Throwable t) {
+                        granted.release();
+                        callback.onFailure(GovernedCall.this, t);
+                    }
+                });
+            });
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return permit != null || delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            CompletableFuture<Governor.Permit> pending = permit;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled || delegate.isCanceled();
+        }
+
+        @Override
+        @SuppressWarnings("CloneDoesntCallSuperClone")
+        public Call<T> clone() {
+            return new GovernedCall<>(delegate.clone(), governor, metrics);
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        private CompletableFuture<Governor.Permit> acquire() {
+            synchronized (this) {
+                if (permit != null) {
+                    throw new IllegalStateException("Already executed.");
+                }
+                Request request = delegate.request();
+                long start = System.nanoTime();
+                permit = governor.acquire(Governor.company(request.url()));
+                permit.thenRun(() -> metrics.permitWaited(MetricsEventListener.endpoint(request), System.nanoTime() - start));
+            }
+            if (canceled) {
+                permit.cancel(false);
+            }
+            return permit;
+        }
+
+        private static Governor.Permit await(CompletableFuture<Governor.Permit> permit) throws IOException {
+            try {
+                return permit.get();
+            } catch (InterruptedException e) {
+                permit.cancel(false);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a permit");
+            } catch (CancellationException | ExecutionException e) {
+                throw new IOException("Canceled");
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Rate and concurrency limits of one {@link FlexibeeClientRegistry} - a request takes a permit of its company
+ * first, then a global one. Both are held until the response arrives, including retries and their backoff.
+ * Every retry takes a token of both rate limits again, see {@link #awaitRetryToken(String)}.
+ */
+class Governor {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "flexibee-governor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Limiter global;
+
+    private final RateLimit defaultCompanyLimit;
+
+    private final Map<String, RateLimit> companyLimits;
+
+    private final ConcurrentMap<String, Limiter> companies = new ConcurrentHashMap<>();
+
+    Governor(RateLimit globalLimit, RateLimit defaultCompanyLimit, Map<String, RateLimit> companyLimits) {
+        this.global = globalLimit != null ? limiter(globalLimit) : null;
+        this.defaultCompanyLimit = defaultCompanyLimit;
+        this.companyLimits = companyLimits != null ? companyLimits : Collections.emptyMap();
+    }
+
+    boolean isEnabled() {
+        return global != null || defaultCompanyLimit != null || !companyLimits.isEmpty();
+    }
+
+    /**
+     * @param company null when the request is not bound to a company
+     * @return future of the permit, cancel it to stop waiting
+     */
+    CompletableFuture<Permit> acquire(String company) {
+        Limiter companyLimiter = company != null ? companyLimiter(company) : null;
+        CompletableFuture<Permit> permit = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<Void>> pending = new AtomicReference<>();
+
+        CompletableFuture<Void> companyPermit = acquire(companyLimiter);
+        pending.set(companyPermit);
+        companyPermit.whenComplete((ignored, companyFailure) -> {
+            if (companyFailure != null) {
+                return;
+            }
+            if (permit.isDone()) {
+                release(companyLimiter);
+                return;
+            }
+            CompletableFuture<Void> globalPermit = acquire(global);
+            pending.set(globalPermit);
+            globalPermit.whenComplete((ignored2, globalFailure) -> {
+                if (globalFailure != null) {
+                    release(companyLimiter);
+                    return;
+                }
+                Permit granted = new Permit(companyLimiter, global);
+                if (!permit.complete(granted)) {
+                    granted.release();
+                }
+            });
+            if (permit.isDone()) {
+                globalPermit.cancel(false);
+            }
+        });
+        permit.whenComplete((granted, failure) -> {
+            if (failure instanceof CancellationException) {
+                pending.get().cancel(false);
+            }
+        });
+        return permit;
+    }
+
+    /**
+     * Blocks until the company and global rate limits grant a token for another attempt of a call, which
+     * already holds its in-flight slots.
+     *
+     * @param company null when the request is not bound to a company
+     */
+    void awaitRetryToken(String company) throws InterruptedIOException {
+        awaitToken(company != null ? companyLimiter(company) : null);
+        awaitToken(global);
+    }
+
+    private static void awaitToken(Limiter limiter) throws InterruptedIOException {
+        if (limiter == null) {
+            return;
+        }
+        CompletableFuture<Void> token = limiter.acquireToken();
+        try {
+            token.get();
+        } catch (InterruptedException e) {
+            token.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a retry token");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Retry token failed", e.getCause());
+        }
+    }
+
+    private Limiter companyLimiter(String company) {
+        RateLimit limit = companyLimits.getOrDefault(company, defaultCompanyLimit);
+        return limit != null ? companies.computeIfAbsent(company, name -> limiter(limit)) : null;
+    }
+
+    static String company(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int index = segments.indexOf("c");
+        return index >= 0 && index + 1 < segments.size() ? segments.get(index + 1) : null;
+    }
+
+    private static CompletableFuture<Void> acquire(Limiter limiter) {
+        return limiter != null ? limiter.acquire() : CompletableFuture.completedFuture(null);
+    }
+
+    private static void release(Limiter limiter) {
+        if (limiter != null) {
+            limiter.release();
+        }
+    }
+
+    private static Limiter limiter(RateLimit limit) {
+        return new Limiter(limit, SCHEDULER, System::nanoTime);
+    }
+
+    static class Permit {
+        private final Limiter company;
+        private final Limiter global;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Limiter company, Limiter global) {
+            this.company = company;
+            this.global = global;
+        }
+
+        /**
+         * Returns the permit, repeated calls do nothing.
+         */
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                Governor.release(global);
+                Governor.release(company);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Gzips request bodies of at least {@code minBytes}. Bodies are compressed into a buffer, so the request keeps its
+ * Content-Length. Responses need nothing here - OkHttp asks for gzip and decompresses it while the body is read.
+ */
+class GzipRequestInterceptor implements Interceptor {
+
+    private final long minBytes;
+
+    GzipRequestInterceptor(long minBytes) {
+        this.minBytes = minBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestBody body = request.body();
+        if (body == null || request.header("Content-Encoding") != null) {
+            return chain.proceed(request);
+        }
+        long length = body.contentLength();
+        if (length != -1 && length < minBytes) {
+            return chain.proceed(request);
+        }
+        return chain.proceed(request.newBuilder()
+                .header("Content-Encoding", "gzip")
+                .method(request.method(), gzip(body))
+                .build());
+    }
+
+    private static RequestBody gzip(RequestBody body) throws IOException {
+        Buffer compressed = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(compressed))) {
+            body.writeTo(sink);
+        }
+        MediaType contentType = body.contentType();
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return compressed.size();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.write(compressed.clone(), compressed.size());
+            }
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import org.slf4j.Logger;
+
+/**
+ * Logs HTTP traffic without the cost of full body logging - nothing is done unless the logger has DEBUG enabled,
+ * only the first {@code maxBodyBytes} of textual bodies are logged and binary bodies (e.g. PDFs) are never read.
+ * Response bodies are peeked, so they still stream to the caller.
+ */
+class HttpLogInterceptor implements Interceptor {
+
+    static final int DEFAULT_MAX_BODY_BYTES = 4096;
+
+    private final Logger logger;
+
+    private final HttpLogLevel level;
+
+    private final int maxBodyBytes;
+
+    HttpLogInterceptor(Logger logger, HttpLogLevel level, int maxBodyBytes) {
+        this.logger = logger;
+        this.level = level;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (level == HttpLogLevel.NONE || !logger.isDebugEnabled()) {
+            return chain.proceed(chain.request());
+        }
+        Request request = chain.request();
+        logRequest(request);
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            logger.debug("<-- HTTP FAILED {} {}: {}", request.method(), request.url(), e.toString());
+            throw e;
+        }
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logResponse(response, tookMs);
+        return response;
+    }
+
+    private void logRequest(Request request) throws IOException {
+        RequestBody body = request.body();
+        logger.debug("--> {} {}{}", request.method(), request.url(),
+                body != null && body.contentLength() >= 0 ? " (" + body.contentLength() + "-byte body)" : "");
+        if (level.compareTo(HttpLogLevel.HEADERS) < 0) {
+            return;
+        }
+        logHeaders(request.headers());
+        if (level != HttpLogLevel.BODY || body == null) {
+            return;
+        }
+        if (!isText(body.contentType())) {
+            logger.debug("(binary request body omitted)");
+            return;
+        }
+        CappedSink sink = new CappedSink(maxBodyBytes);
+        BufferedSink bufferedSink = Okio.buffer(sink);
+        body.writeTo(bufferedSink);
+        bufferedSink.flush();
+        logger.debug("{}", bodyPrefix(sink.prefix, sink.total, charset(body.contentType())));
+    }
+
+    private void logResponse(Response response, long tookMs) throws IOException {
+        ResponseBody body = response.body();
+        logger.debug("<-- {} {} {} ({} ms)", response.code(), response.message(), response.request().url(), tookMs);
+        if (level.compareTo(HttpLogLevel.HEADERS) < 0) {
+            return;
+        }
+        logHeaders(response.headers());
+        if (level != HttpLogLevel.BODY || body == null) {
+            return;
+        }
+        if (!isText(body.contentType())) {
+            logger.debug("(binary {} response body omitted)", body.contentLength() >= 0 ? body.contentLength() + "-byte" : "unknown-length");
+            return;
+        }
+        ResponseBody peeked = response.peekBody(maxBodyBytes + 1L);
+        Buffer prefix = new Buffer();
+        prefix.write(peeked.bytes());
+        logger.debug("{}", bodyPrefix(prefix, prefix.size() > maxBodyBytes ? -1 : prefix.size(), charset(body.contentType())));
+    }
+
+    private void logHeaders(Headers headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.name(i);
+            logger.debug("{}: {}", name, "Authorization".equalsIgnoreCase(name) ? "<redacted>" : headers.value(i));
+        }
+    }
+
+    /**
+     * @param total body size, negative when it is not known to the full
+     */
+    private String bodyPrefix(Buffer buffer, long total, Charset charset) throws IOException {
+        if (buffer.size() <= maxBodyBytes && total >= 0 && total <= maxBodyBytes) {
+            return buffer.readString(charset);
+        }
+        String prefix = buffer.readString(Math.min(buffer.size(), maxBodyBytes), charset);
+        return prefix + "... (" + (total >= 0 ? total + "-byte body" : "body") + " truncated to " + maxBodyBytes + " bytes)";
+    }
+
+    private static boolean isText(MediaType contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String subtype = contentType.subtype().toLowerCase();
+        return "text".equals(contentType.type())
+                || subtype.equals("xml") || subtype.endsWith("+xml")
+                || subtype.equals("json") || subtype.endsWith("+json")
+                || subtype.equals("x-www-form-urlencoded");
+    }
+
+    private static Charset charset(MediaType contentType) {
+        Charset charset = contentType != null ? contentType.charset() : null;
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Keeps the first bytes written and counts, but drops, the rest.
+     */
+    private static class CappedSink extends ForwardingSink {
+        private final Buffer prefix;
+        private final int limit;
+        private long total;
+
+        CappedSink(int limit) {
+            this(new Buffer(), limit);
+        }
+
+        private CappedSink(Buffer prefix, int limit) {
+            super(prefix);
+            this.prefix = prefix;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            total += byteCount;
+            long keep = Math.max(0, Math.min(byteCount, limit - prefix.size()));
+            if (keep > 0) {
+                super.write(source, keep);
+            }
+            source.skip(byteCount - keep);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.adleritech.flexibee.core.api;
+
+/**
+ * Detail of HTTP traffic logged at DEBUG level of the {@code com.adleritech.flexibee.core.api.http} logger.
+ */
+public enum HttpLogLevel {
+    /**
+     * Nothing is logged.
+     */
+    NONE,
+    /**
+     * Request and response lines.
+     */
+    BASIC,
+    /**
+     * Request and response lines with headers, the Authorization header is redacted.
+     */
+    HEADERS,
+    /**
+     * Request and response lines, headers and a capped prefix of textual bodies.
+     */
+    BODY
+}
@@ -0,0 +1,121 @@
+package com.adleritech.flexibee.core.api;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link FlexibeeMetrics} kept in memory per endpoint, meant to be scraped periodically, e.g. by a metrics exporter
+ * or a health page. Connect, TLS and decode are recorded only for calls where they happened, permit wait only when
+ * rate limits are configured.
+ */
+public class InMemoryFlexibeeMetrics implements FlexibeeMetrics {
+
+    public enum Phase {
+        PERMIT_WAIT, CONNECT, TLS, SERVER_WAIT, BODY_READ, DECODE, TOTAL
+    }
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public void callCompleted(CallMetrics call) {
+        endpoints.computeIfAbsent(call.getEndpoint(), endpoint -> new EndpointMetrics()).record(call);
+    }
+
+    @Override
+    public void callRetried(String endpoint, int attempt, int statusCode) {
+        endpoints.computeIfAbsent(endpoint, name -> new EndpointMetrics()).retries.increment();
+    }
+
+    @Override
+    public void permitWaited(String endpoint, long waitNanos) {
+        endpoints.computeIfAbsent(endpoint, name -> new EndpointMetrics()).getHistogram(Phase.PERMIT_WAIT).recordNanos(waitNanos);
+    }
+
+    /**
+     * @return live metrics by endpoint name
+     */
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableMap(endpoints);
+    }
+
+    public EndpointMetrics getEndpoint(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    public static class EndpointMetrics {
+
+        private final LongAdder calls = new LongAdder();
+
+        private final LongAdder retries = new LongAdder();
+
+        private final ConcurrentMap<String, LongAdder> statusClasses = new ConcurrentHashMap<>();
+
+        private final LongAdder bytesSent = new LongAdder();
+
+        private final LongAdder bytesReceived = new LongAdder();
+
+        private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+
+        EndpointMetrics() {
+            for (Phase phase : Phase.values()) {
+                histograms.put(phase, new LatencyHistogram());
+            }
+        }
+
+        void record(CallMetrics call) {
+            calls.increment();
+            statusClasses.computeIfAbsent(call.getStatusClass(), statusClass -> new LongAdder()).increment();
+            bytesSent.add(call.getBytesSent());
+            bytesReceived.add(call.getBytesReceived());
+            recordIfHappened(Phase.CONNECT, call.getConnectNanos());
+            recordIfHappened(Phase.TLS, call.getTlsNanos());
+            histograms.get(Phase.SERVER_WAIT).recordNanos(call.getServerWaitNanos());
+            histograms.get(Phase.BODY_READ).recordNanos(call.getBodyReadNanos());
+            recordIfHappened(Phase.DECODE, call.getDecodeNanos());
+            histograms.get(Phase.TOTAL).recordNanos(call.getTotalNanos());
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        /**
+         * @return failed attempts that were retried, they are not counted as calls
+         */
+        public long getRetries() {
+            return retries.sum();
+        }
+
+        /**
+         * @return call count by status class, e.g. {@code 2xx} or {@code failed}
+         */
+        public Map<String, Long> getStatusClasses() {
+            Map<String, Long> counts = new TreeMap<>();
+            statusClasses.forEach((statusClass, count) -> counts.put(statusClass, count.sum()));
+            return counts;
+        }
+
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        public LatencyHistogram getHistogram(Phase phase) {
+            return histograms.get(phase);
+        }
+
+        private void recordIfHappened(Phase phase, long nanos) {
+            if (nanos > 0) {
+                histograms.get(phase).recordNanos(nanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.adleritech.flexibee.core.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket combined with an in-flight limit. Permits are granted strictly in the order they were asked for,
+ * waiting is asynchronous - a request waiting for tokens schedules its own wake up. Tokens of retries, which keep
+ * the in-flight slot of their call, are granted ahead of new permits.
+ */
+class Limiter {
+
+    private static final CompletableFuture<Void> GRANTED = CompletableFuture.completedFuture(null);
+
+    private final int maxInFlight;
+
+    private final double permitsPerNano;
+
+    private final double capacity;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier clock;
+
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    private final Deque<CompletableFuture<Void>> tokenWaiters = new ArrayDeque<>();
+
+    private int inFlight;
+
+    private double tokens;
+
+    private long refilledAt;
+
+    private boolean wakeUpScheduled;
+
+    Limiter(RateLimit limit, ScheduledExecutorService scheduler, LongSupplier clock) {
+        this.maxInFlight = limit.getMaxInFlight();
+        this.permitsPerNano = limit.getPermitsPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = limit.getBurst() > 0 ? limit.getBurst() : Math.max(1, Math.ceil(limit.getPermitsPerSecond()));
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.refilledAt = clock.getAsLong();
+    }
+
+    /**
+     * @return future completed once the permit is granted, cancel it to stop waiting
+     */
+    CompletableFuture<Void> acquire() {
+        if (maxInFlight <= 0 && permitsPerNano <= 0) {
+            return GRANTED;
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        synchronized (this) {
+            waiters.add(permit);
+        }
+        grant();
+        return permit;
+    }
+
+    /**
+     * Takes a token without an in-flight slot, for another attempt of a call already holding its permit.
+     *
+     * @return future completed once the token is granted, cancel it to stop waiting
+     */
+    CompletableFuture<Void> acquireToken() {
+        if (permitsPerNano <= 0) {
+            return GRANTED;
+        }
+        CompletableFuture<Void> token = new CompletableFuture<>();
+        synchronized (this) {
+            tokenWaiters.add(token);
+        }
+        grant();
+        return token;
+    }
+
+    void release() {
+        if (maxInFlight <= 0) {
+            return;
+        }
+        synchronized (this) {
+            inFlight--;
+        }
+        grant();
+    }
+
+    synchronized int waiting() {
+        return waiters.size() + tokenWaiters.size();
+    }
+
+    private void grant() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        List<CompletableFuture<Void>> grantedTokens = new ArrayList<>();
+        synchronized (this) {
+            refill();
+            while (!tokenWaiters.isEmpty()) {
+                CompletableFuture<Void> head = tokenWaiters.peek();
+                if (head.isDone()) {
+                    tokenWaiters.poll();
+                    continue;
+                }
+                if (tokens < 1) {
+                    scheduleWakeUp((long) Math.ceil((1 - tokens) / permitsPerNano));
+                    break;
+                }
+                tokenWaiters.poll();
+                tokens--;
+                grantedTokens.add(head);
+            }
+            while (!waiters.isEmpty()) {
+                CompletableFuture<Void> head = waiters.peek();
+                if (head.isDone()) {
+                    waiters.poll();
+                    continue;
+                }
+                if (maxInFlight > 0 && inFlight >= maxInFlight) {
+                    break;
+                }
+                if (permitsPerNano > 0 && tokens < 1) {
+                    scheduleWakeUp((long) Math.ceil((1 - tokens) / permitsPerNano));
+                    break;
+                }
+                waiters.poll();
+                if (maxInFlight > 0) {
+                    inFlight++;
+                }
+                if (permitsPerNano > 0) {
+                    tokens--;
+                }
+                granted.add(head);
+            }
+        }
+        for (CompletableFuture<Void> token : grantedTokens) {
+            // a token of a cancelled waiter is lost
+            token.complete(null);
+        }
+        for (CompletableFuture<Void> permit : granted) {
+            if (!permit.complete(null)) {
+                // cancelled meanwhile, the token is lost but the in-flight slot goes back
+                release();
+            }
+        }
+    }
+
+    private void refill() {
+        if (permitsPerNano <= 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+    }
+
+    private void scheduleWakeUp(long delayNanos) {
+        if (wakeUpScheduled) {
+            return;
+        }
+        wakeUpScheduled = true;
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                wakeUpScheduled = false;
+            }
+            grant();
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
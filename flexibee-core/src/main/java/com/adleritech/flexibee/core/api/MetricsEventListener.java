@@ -0,0 +1,219 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Times the phases of one call from OkHttp events and reports them to {@link FlexibeeMetrics}.
+ * <p>
+ * Decoding is measured by {@link DecodeTimingConverterFactory} on the thread that read the response, the listener
+ * opening the response body is handed over through a thread local. When the body is decoded, the call is reported
+ * once the converter finishes, otherwise on call end. Bodies never passed to the converter (streamed or error bodies)
+ * leave a stale entry behind, the converter ignores listeners whose body was already read or whose call ended.
+ */
+class MetricsEventListener extends EventListener {
+
+    private static final ThreadLocal<MetricsEventListener> RESPONSE_BODY_OWNER = new ThreadLocal<>();
+
+    private final FlexibeeMetrics metrics;
+
+    private final String endpoint;
+
+    private final long callStart = System.nanoTime();
+
+    private long connectStart;
+    private long connectNanos;
+    private long tlsStart;
+    private long tlsNanos;
+    private long requestSent;
+    private long serverWaitNanos;
+    private long bodyStart;
+    private long bodyReadNanos;
+    private long decodeStart;
+    private long decodeNanos;
+    private long bytesSent;
+    private long bytesReceived;
+    private int statusCode;
+
+    private long callEnd;
+    private IOException failure;
+    private boolean ended;
+    private boolean bodyEnded;
+    private boolean decoding;
+    private boolean reported;
+
+    MetricsEventListener(FlexibeeMetrics metrics, Call call) {
+        this.metrics = metrics;
+        this.endpoint = endpoint(call.request());
+    }
+
+    static EventListener.Factory factory(FlexibeeMetrics metrics) {
+        return call -> new MetricsEventListener(metrics, call);
+    }
+
+    /**
+     * Called by the converter, returns the listener of the response about to be decoded on this thread.
+     */
+    static MetricsEventListener decodeStarted() {
+        MetricsEventListener listener = RESPONSE_BODY_OWNER.get();
+        if (listener == null) {
+            return null;
+        }
+        RESPONSE_BODY_OWNER.remove();
+        synchronized (listener) {
+            if (listener.reported || listener.decoding || listener.bodyEnded || listener.ended) {
+                return null;
+            }
+            listener.decoding = true;
+            listener.decodeStart = System.nanoTime();
+        }
+        return listener;
+    }
+
+    void decodeFinished() {
+        synchronized (this) {
+            decodeNanos = System.nanoTime() - decodeStart;
+            decoding = false;
+            if (!ended) {
+                return;
+            }
+        }
+        report();
+    }
+
+    @Override
+    public synchronized void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void secureConnectStart(Call call) {
+        tlsStart = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void secureConnectEnd(Call call, Handshake handshake) {
+        tlsNanos += System.nanoTime() - tlsStart;
+    }
+
+    @Override
+    public synchronized void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        connectNanos += System.nanoTime() - connectStart;
+    }
+
+    @Override
+    public synchronized void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+        connectNanos += System.nanoTime() - connectStart;
+    }
+
+    @Override
+    public synchronized void requestHeadersEnd(Call call, Request request) {
+        requestSent = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void requestBodyEnd(Call call, long byteCount) {
+        requestSent = System.nanoTime();
+        bytesSent += byteCount;
+    }
+
+    @Override
+    public synchronized void responseHeadersStart(Call call) {
+        if (requestSent > 0) {
+            serverWaitNanos += System.nanoTime() - requestSent;
+        }
+    }
+
+    @Override
+    public synchronized void responseHeadersEnd(Call call, Response response) {
+        statusCode = response.code();
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        synchronized (this) {
+            bodyStart = System.nanoTime();
+        }
+        RESPONSE_BODY_OWNER.set(this);
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        releaseResponseBody();
+        synchronized (this) {
+            bodyReadNanos += System.nanoTime() - bodyStart;
+            bytesReceived += byteCount;
+            bodyEnded = true;
+        }
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        ended(null);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        ended(ioe);
+    }
+
+    private void ended(IOException failure) {
+        releaseResponseBody();
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            callEnd = System.nanoTime();
+            this.failure = failure;
+            if (decoding) {
+                return;
+            }
+        }
+        report();
+    }
+
+    private void releaseResponseBody() {
+        if (RESPONSE_BODY_OWNER.get() == this) {
+            RESPONSE_BODY_OWNER.remove();
+        }
+    }
+
+    private void report() {
+        CallMetrics callMetrics;
+        synchronized (this) {
+            if (reported) {
+                return;
+            }
+            reported = true;
+            callMetrics = CallMetrics.builder()
+                    .endpoint(endpoint)
+                    .statusCode(failure == null ? statusCode : 0)
+                    .bytesSent(bytesSent)
+                    .bytesReceived(bytesReceived)
+                    .connectNanos(connectNanos)
+                    .tlsNanos(tlsNanos)
+                    .serverWaitNanos(serverWaitNanos)
+                    .bodyReadNanos(bodyReadNanos)
+                    .decodeNanos(decodeNanos)
+                    .totalNanos(Math.max(callEnd, decodeStart + decodeNanos) - callStart)
+                    .failure(failure)
+                    .build();
+        }
+        metrics.callCompleted(callMetrics);
+    }
+
+    static String endpoint(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null ? invocation.method().getName() : "other";
+    }
+}
@@ -0,0 +1,108 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily fetched listing of an evidence. Pages are requested with {@code start}/{@code limit} and the next page
+ * is always prefetched in the background while the current one is being consumed, so at most two pages are held
+ * in memory.
+ * <p>
+ * Failed page requests are rethrown from {@link #hasNext()} as {@link UncheckedIOException} for transport errors
+ * and as {@link IllegalStateException} carrying the {@link FlexibeeClient.FlexibeeException} otherwise.
+ */
+public class PagedIterator<T> implements Iterator<T>, Closeable {
+
+    private final IntFunction<CompletableFuture<List<T>>> pageFetcher;
+
+    private final int pageSize;
+
+    private Iterator<T> page = Collections.emptyIterator();
+
+    private CompletableFuture<List<T>> nextPage;
+
+    private int nextStart;
+
+    PagedIterator(IntFunction<CompletableFuture<List<T>>> pageFetcher, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.pageFetcher = pageFetcher;
+        this.pageSize = pageSize;
+        this.nextPage = fetch();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (nextPage == null) {
+                return false;
+            }
+            List<T> records = await(nextPage);
+            boolean lastPage = records.size() < pageSize;
+            nextPage = lastPage ? null : fetch();
+            page = records.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    /**
+     * Sequential stream over the remaining records, closing the stream cancels the prefetch.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Cancels the prefetched page request, if any.
+     */
+    @Override
+    public void close() {
+        if (nextPage != null) {
+            nextPage.cancel(true);
+            nextPage = null;
+        }
+        page = Collections.emptyIterator();
+    }
+
+    private CompletableFuture<List<T>> fetch() {
+        CompletableFuture<List<T>> future = pageFetcher.apply(nextStart);
+        nextStart += pageSize;
+        return future;
+    }
+
+    private static <T> List<T> await(CompletableFuture<List<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw (UncheckedIOException) cause;
+            } else if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            throw new IllegalStateException("Cannot fetch page: " + cause.getMessage(), cause);
+        }
+    }
+}
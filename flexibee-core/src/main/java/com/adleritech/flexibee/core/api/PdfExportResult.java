@@ -0,0 +1,50 @@
+package com.adleritech.flexibee.core.api;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+/**
+ * Outcome of a {@link PdfExporter} run.
+ */
+@Value
+@Builder
+public class PdfExportResult {
+
+    /**
+     * Invoices written by this run.
+     */
+    int exported;
+
+    /**
+     * Invoices already exported by a previous run (or repeated in the input) and not downloaded again.
+     */
+    int skipped;
+
+    long bytes;
+
+    /**
+     * ZIP parts completed by this run.
+     */
+    @Singular
+    List<Path> parts;
+
+    /**
+     * Invoices that failed to download, the next run retries them.
+     */
+    @Singular
+    List<InvoiceFailure> failures;
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    @Value
+    public static class InvoiceFailure {
+        String id;
+        Throwable cause;
+    }
+}
@@ -0,0 +1,300 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import lombok.Builder;
+
+/**
+ * Exports issued invoice PDFs into a directory of ZIP parts ({@code part-00001.zip}, ...), e.g.
+ * {@code exporter.export(client, ids.iterator(), directory)}.
+ * <p>
+ * PDFs are downloaded {@code parallelism} at a time into temporary files and stored into the current part as they
+ * arrive, uncompressed as PDFs hardly compress. When a part is complete, its ids are saved to the checkpoint file
+ * {@code export.checkpoint} of the directory. Running the export again into the same directory skips the checkpointed
+ * ids, so an interrupted export loses at most the unfinished part, which is written again. Entries are named by
+ * the percent-encoded id, e.g. {@code ext%3ASHOP%2F42.pdf}.
+ */
+public class PdfExporter {
+
+    static final String CHECKPOINT_FILE = "export.checkpoint";
+
+    private static final String PART_PREFIX = "part-";
+
+    private static final String TEMP_PREFIX = "invoice";
+
+    private static final String TEMP_SUFFIX = ".pdf.tmp";
+
+    private final int parallelism;
+
+    private final int entriesPerPart;
+
+    /**
+     * @param parallelism    max downloads in flight at once, 4 by default
+     * @param entriesPerPart PDFs in one ZIP part, 1000 by default
+     */
+    @Builder
+    private PdfExporter(Integer parallelism, Integer entriesPerPart) {
+        this.parallelism = parallelism != null ? parallelism : 4;
+        this.entriesPerPart = entriesPerPart != null ? entriesPerPart : 1000;
+        if (this.parallelism < 1 || this.entriesPerPart < 1) {
+            throw new IllegalArgumentException("Invalid PDF export limits: parallelism=" + parallelism +
+                    ", entriesPerPart=" + entriesPerPart);
+        }
+    }
+
+    /**
+     * Downloads the PDFs of all ids not exported yet, ids are consumed lazily as download slots free up. Failed
+     * downloads do not stop the export, they are reported in {@link PdfExportResult#getFailures()}.
+     */
+    public PdfExportResult export(FlexibeeClient client, Iterator<String> ids, Path directory) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        deleteStaleDownloads(directory);
+        Checkpoint checkpoint = new Checkpoint(directory.resolve(CHECKPOINT_FILE));
+        Set<String> seen = new HashSet<>(checkpoint.ids);
+        PdfExportResult.PdfExportResultBuilder result = PdfExportResult.builder();
+        int exported = 0;
+        int skipped = 0;
+        long bytes = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "flexibee-pdf-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Download> downloads = new ExecutorCompletionService<>(executor);
+        int inFlight = 0;
+        Part part = null;
+        try {
+            while (true) {
+                while (inFlight < parallelism && ids.hasNext()) {
+                    String id = ids.next();
+                    if (!seen.add(id)) {
+                        skipped++;
+                        continue;
+                    }
+                    downloads.submit(() -> download(client, id, directory));
+                    inFlight++;
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+                Download download = take(downloads);
+                inFlight--;
+                if (download.failure != null) {
+                    result.failure(new PdfExportResult.InvoiceFailure(download.id, download.failure));
+                    continue;
+                }
+                if (part == null) {
+                    part = new Part(directory.resolve(String.format("%s%05d.zip", PART_PREFIX, checkpoint.lastPart + 1)));
+                }
+                part.add(download);
+                exported++;
+                bytes += download.bytes;
+                if (part.ids.size() == entriesPerPart) {
+                    complete(part, checkpoint, result);
+                    part = null;
+                }
+            }
+            if (part != null) {
+                complete(part, checkpoint, result);
+                part = null;
+            }
+        } finally {
+            executor.shutdownNow();
+            if (part != null) {
+                part.abort();
+            }
+        }
+        return result.exported(exported).skipped(skipped).bytes(bytes).build();
+    }
+
+    private static Download download(FlexibeeClient client, String id, Path directory) {
+        Path file = null;
+        try {
+            file = Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+            CRC32 crc = new CRC32();
+            DownloadResult result;
+            try (OutputStream out = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), crc)) {
+                result = client.downloadIssuedInvoicePdf(id, out);
+            }
+            return new Download(id, file, result.getBytes(), crc.getValue(), null);
+        } catch (Exception e) {
+            deleteQuietly(file);
+            return new Download(id, null, 0, 0, e);
+        }
+    }
+
+    /**
+     * Downloads left behind by a killed export are never picked up again.
+     */
+    private static void deleteStaleDownloads(Path directory) throws IOException {
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, TEMP_PREFIX + "*" + TEMP_SUFFIX)) {
+            for (Path file : stale) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private static Download take(CompletionService<Download> downloads) throws InterruptedException {
+        try {
+            return downloads.take().get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Download task failed", e.getCause());
+        }
+    }
+
+    private static void complete(Part part, Checkpoint checkpoint, PdfExportResult.PdfExportResultBuilder result) throws IOException {
+        part.close();
+        checkpoint.save(part.file.getFileName().toString(), part.ids);
+        result.part(part.file);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // a leftover temporary file does not break the export
+        }
+    }
+
+    /**
+     * Percent-encodes UTF-8 bytes of everything but {@code [A-Za-z0-9._-]}, so distinct ids never share an entry.
+     */
+    static String entryName(String id) {
+        StringBuilder name = new StringBuilder(id.length() + 4);
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '.' || c == '_' || c == '-') {
+                name.append(c);
+            } else {
+                name.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return name.append(".pdf").toString();
+    }
+
+    private static class Download {
+        final String id;
+        final Path file;
+        final long bytes;
+        final long crc;
+        final Exception failure;
+
+        Download(String id, Path file, long bytes, long crc, Exception failure) {
+            this.id = id;
+            this.file = file;
+            this.bytes = bytes;
+            this.crc = crc;
+            this.failure = failure;
+        }
+    }
+
+    private static class Part {
+        final Path file;
+        final FileOutputStream fileOut;
+        final ZipOutputStream zip;
+        final List<String> ids = new ArrayList<>();
+
+        Part(Path file) throws IOException {
+            this.file = file;
+            this.fileOut = new FileOutputStream(file.toFile());
+            this.zip = new ZipOutputStream(new BufferedOutputStream(fileOut));
+        }
+
+        void add(Download download) throws IOException {
+            try {
+                ZipEntry entry = new ZipEntry(entryName(download.id));
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(download.bytes);
+                entry.setCrc(download.crc);
+                zip.putNextEntry(entry);
+                Files.copy(download.file, zip);
+                zip.closeEntry();
+                ids.add(download.id);
+            } finally {
+                deleteQuietly(download.file);
+            }
+        }
+
+        void close() throws IOException {
+            zip.finish();
+            zip.flush();
+            fileOut.getFD().sync();
+            zip.close();
+        }
+
+        void abort() {
+            try {
+                zip.close();
+            } catch (IOException e) {
+                // the unfinished part is written again by the next run
+            }
+        }
+    }
+
+    /**
+     * Lines of {@code part<TAB>id}, replaced atomically after every completed part.
+     */
+    private static class Checkpoint {
+        final Path file;
+        final Set<String> ids = new HashSet<>();
+        final StringBuilder content = new StringBuilder();
+        int lastPart;
+
+        Checkpoint(Path file) throws IOException {
+            this.file = file;
+            if (!Files.exists(file)) {
+                return;
+            }
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab < 0 || !line.startsWith(PART_PREFIX)) {
+                    throw new IOException("Corrupted export checkpoint " + file + ": " + line);
+                }
+                String part = line.substring(0, tab);
+                lastPart = Math.max(lastPart, Integer.parseInt(part.substring(PART_PREFIX.length(), part.indexOf('.'))));
+                ids.add(line.substring(tab + 1));
+                content.append(line).append('\n');
+            }
+        }
+
+        void save(String part, List<String> partIds) throws IOException {
+            for (String id : partIds) {
+                content.append(part).append('\t').append(id).append('\n');
+            }
+            lastPart++;
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, content.toString().getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.adleritech.flexibee.core.api;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.simpleframework.xml.Element;
+import org.simpleframework.xml.ElementList;
+
+import lombok.Getter;
+
+/**
+ * Subset of record properties to fetch, sent as FlexiBee {@code detail=custom:...}. Properties are the field names
+ * of the domain class, e.g. {@code Projection.of(Evidence.ISSUED_INVOICE, "paymentStatus", "remainingAmount")},
+ * translated to the element names they are mapped to. The record id is always included.
+ * <p>
+ * Fields outside the projection are left null in the returned records.
+ */
+public final class Projection<T> {
+
+    private static final String ID = "id";
+
+    @Getter
+    private final Class<T> type;
+
+    /**
+     * FlexiBee element names of the projected properties.
+     */
+    @Getter
+    private final List<String> elements;
+
+    /**
+     * Value of the {@code detail} query parameter.
+     */
+    @Getter
+    private final String detail;
+
+    private Projection(Class<T> type, List<String> elements) {
+        this.type = type;
+        this.elements = Collections.unmodifiableList(elements);
+        this.detail = "custom:" + String.join(",", elements);
+    }
+
+    public static <T> Projection<T> of(Evidence<T> evidence, String... properties) {
+        return of(evidence.getType(), properties);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a property is not an XML mapped field of the type
+     */
+    public static <T> Projection<T> of(Class<T> type, String... properties) {
+        Set<String> elements = new LinkedHashSet<>();
+        elements.add(ID);
+        for (String property : properties) {
+            elements.add(elementName(type, property));
+        }
+        return new Projection<>(type, new ArrayList<>(elements));
+    }
+
+    static String elementName(Class<?> type, String property) {
+        return elementName(field(type, property));
+    }
+
+    static Field field(Class<?> type, String property) {
+        try {
+            return type.getDeclaredField(property);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException("Unknown property " + type.getSimpleName() + "." + property, e);
+        }
+    }
+
+    static String elementName(Field field) {
+        Element element = field.getAnnotation(Element.class);
+        if (element != null) {
+            return element.name().isEmpty() ? field.getName() : element.name();
+        }
+        ElementList list = field.getAnnotation(ElementList.class);
+        if (list != null) {
+            String name = list.inline() ? list.entry() : list.name();
+            return name.isEmpty() ? field.getName() : name;
+        }
+        throw new IllegalArgumentException("Property " + field.getDeclaringClass().getSimpleName() + "." + field.getName()
+                + " is not mapped to an element");
+    }
+
+    @Override
+    public String toString() {
+        return detail;
+    }
+}
@@ -0,0 +1,27 @@
+package com.adleritech.flexibee.core.api;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Token bucket rate and in-flight limit of requests, applied globally or per company by {@link FlexibeeClientRegistry}.
+ */
+@Value
+@Builder
+public class RateLimit {
+
+    /**
+     * Sustained request rate, unlimited when zero.
+     */
+    double permitsPerSecond;
+
+    /**
+     * Requests allowed at once above the sustained rate, one second worth of permits when zero.
+     */
+    int burst;
+
+    /**
+     * Concurrent requests, unlimited when zero.
+     */
+    int maxInFlight;
+}
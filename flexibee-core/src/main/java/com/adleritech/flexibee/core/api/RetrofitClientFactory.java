@@ -2,15 +2,19 @@ package com.adleritech.flexibee.core.api;
 
 import com.adleritech.flexibee.core.api.FlexibeeClient.SSLConfig;
 import com.adleritech.flexibee.core.api.transformers.Factory;
+import okhttp3.ConnectionPool;
 import okhttp3.Credentials;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
-import okhttp3.logging.HttpLoggingInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import retrofit2.CallAdapter;
+import retrofit2.Converter;
 import retrofit2.Retrofit;
 import retrofit2.converter.simplexml.SimpleXmlConverterFactory;
 
@@ -20,18 +24,72 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 class RetrofitClientFactory {
     private static final Logger LOGGER = LoggerFactory.getLogger("com.adleritech.flexibee.core.api.http");
 
-    public Retrofit createRetrofit(String apiBaseUrl, String username, String password, SSLConfig sslConfig) {
+    /**
+     * Shared transport - connection pool, dispatcher and SSL setup. Per-credential clients are derived from it
+     * via {@link OkHttpClient#newBuilder()}, which keeps the pool and dispatcher shared.
+     */
+    private final OkHttpClient httpClient;
+
+    private final Converter.Factory converterFactory;
+
+    private final HttpLogInterceptor logInterceptor;
+
+    private final RetryInterceptor retryInterceptor;
+
+    private final CircuitBreakerInterceptor circuitBreakerInterceptor;
+
+    private final GzipRequestInterceptor gzipInterceptor;
+
+    private final EndpointTimeoutInterceptor timeoutInterceptor;
+
+    private final Map<String, Duration> callTimeoutOverrides;
+
+    private final CallAdapter.Factory callAdapterFactory;
+
+    RetrofitClientFactory() {
+        this(null, HttpLogLevel.BODY, HttpLogInterceptor.DEFAULT_MAX_BODY_BYTES, FlexibeeMetrics.NONE, RetryPolicy.DEFAULT,
+                new Governor(null, null, null), null, null, TransportOptions.DEFAULT);
+    }
+
+    RetrofitClientFactory(SSLConfig sslConfig, HttpLogLevel logLevel, int maxLoggedBodyBytes, FlexibeeMetrics metrics, RetryPolicy retryPolicy,
+                          Governor governor, CircuitBreakerPolicy circuitBreakerPolicy, Integer gzipMinBytes,
+                          TransportOptions transportOptions) {
+        this.callAdapterFactory = governor.isEnabled() ? new GovernedCallAdapterFactory(governor, metrics) : null;
+        this.httpClient = createSharedOkHttpClient(sslConfig, metrics, transportOptions);
+        this.timeoutInterceptor = !transportOptions.getReadTimeoutOverrides().isEmpty()
+                ? new EndpointTimeoutInterceptor(transportOptions.getReadTimeoutOverrides()) : null;
+        this.callTimeoutOverrides = transportOptions.getCallTimeoutOverrides();
+        this.retryInterceptor = new RetryInterceptor(retryPolicy, metrics, governor);
+        this.circuitBreakerInterceptor = circuitBreakerPolicy != null ? new CircuitBreakerInterceptor(circuitBreakerPolicy) : null;
+        this.logInterceptor = new HttpLogInterceptor(LOGGER, logLevel, maxLoggedBodyBytes);
+        this.gzipInterceptor = gzipMinBytes != null ? new GzipRequestInterceptor(gzipMinBytes) : null;
+        Converter.Factory xmlConverterFactory = SimpleXmlConverterFactory.createNonStrict(Factory.persister());
+        this.converterFactory = metrics != FlexibeeMetrics.NONE ? new DecodeTimingConverterFactory(xmlConverterFactory) : xmlConverterFactory;
+    }
+
+    public Retrofit createRetrofit(String apiBaseUrl, String username, String password) {
         Retrofit.Builder builder = new Retrofit.Builder()
                 .baseUrl(apiBaseUrl)
-                .addConverterFactory(SimpleXmlConverterFactory.createNonStrict(Factory.persister()));
+                .addConverterFactory(converterFactory);
+        if (callAdapterFactory != null) {
+            builder.addCallAdapterFactory(callAdapterFactory);
+        }
         String authToken = Credentials.basic(username, password);
-        builder.client(createOkHttpClient(authToken, sslConfig));
+        OkHttpClient client = createOkHttpClient(authToken);
+        if (callTimeoutOverrides.isEmpty()) {
+            builder.client(client);
+        } else {
+            builder.callFactory(new EndpointTimeoutCallFactory(client, callTimeoutOverrides));
+        }
 
         return builder.build();
     }
@@ -40,16 +98,53 @@ class RetrofitClientFactory {
         return retrofit.create(serviceClass);
     }
 
-    private OkHttpClient createOkHttpClient(String authToken, SSLConfig sslConfig) {
+    /**
+     * Releases the shared dispatcher threads and idle pooled connections.
+     */
+    void shutdown() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    private OkHttpClient createOkHttpClient(String authToken) {
         AuthenticationInterceptor interceptor = new AuthenticationInterceptor(authToken);
-        OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
+        OkHttpClient.Builder httpClient = this.httpClient.newBuilder();
+        if (timeoutInterceptor != null) {
+            httpClient.addInterceptor(timeoutInterceptor);
+        }
+        httpClient.addInterceptor(retryInterceptor);
+        if (circuitBreakerInterceptor != null) {
+            httpClient.addInterceptor(circuitBreakerInterceptor);
+        }
         httpClient.addInterceptor(interceptor);
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(LOGGER::debug);
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-        httpClient.addInterceptor(loggingInterceptor);
+        httpClient.addInterceptor(logInterceptor);
+        if (gzipInterceptor != null) {
+            httpClient.addInterceptor(gzipInterceptor);
+        }
+        return httpClient.build();
+    }
+
+    private OkHttpClient createSharedOkHttpClient(SSLConfig sslConfig, FlexibeeMetrics metrics, TransportOptions options) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(options.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(options.getMaxRequestsPerHost());
+        OkHttpClient.Builder httpClient = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(options.getMaxIdleConnections(), options.getKeepAlive().toNanos(), TimeUnit.NANOSECONDS))
+                .connectTimeout(options.getConnectTimeout().toNanos(), TimeUnit.NANOSECONDS)
+                .readTimeout(options.getReadTimeout().toNanos(), TimeUnit.NANOSECONDS)
+                .writeTimeout(options.getWriteTimeout().toNanos(), TimeUnit.NANOSECONDS)
+                .callTimeout(options.getCallTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        if (options.isHttp2()) {
+            httpClient.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        } else {
+            httpClient.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+        }
+        if (metrics != FlexibeeMetrics.NONE) {
+            httpClient.eventListenerFactory(MetricsEventListener.factory(metrics));
+        }
         httpClient.followRedirects(true);
         httpClient.followSslRedirects(true);
-        httpClient.readTimeout(30, TimeUnit.SECONDS);
         if (sslConfig != null) {
             configureSsl(httpClient, sslConfig);
         }
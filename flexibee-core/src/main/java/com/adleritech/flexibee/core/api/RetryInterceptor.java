@@ -0,0 +1,196 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import com.adleritech.flexibee.core.api.domain.AddressBook;
+import com.adleritech.flexibee.core.api.domain.Bank;
+import com.adleritech.flexibee.core.api.domain.InternalDocument;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceItems;
+import com.adleritech.flexibee.core.api.domain.Obligation;
+import com.adleritech.flexibee.core.api.domain.ObligationItems;
+import com.adleritech.flexibee.core.api.domain.Order;
+import com.adleritech.flexibee.core.api.domain.Receivable;
+import com.adleritech.flexibee.core.api.domain.ReceivedInvoice;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Retries idempotent calls by {@link RetryPolicy} - GETs, and PUTs whose every record is identified
+ * by an {@code ext:} id (see {@link Helpers#externalId(String)}) or which address a record by an {@code ext:} id
+ * in the path. Repeating such an import updates the same records instead of creating duplicates.
+ * <p>
+ * Nested item lists are appended to the existing items of a record, so a PUT carrying items is retried only when
+ * they replace all items ({@code removeAll}) or each of them is addressed by its id. Invoice deposits and bank items
+ * cannot be addressed, PUTs carrying them are never retried.
+ * <p>
+ * The backoff is waited out on the calling thread, which is an OkHttp dispatcher thread for asynchronous calls.
+ * Such a call keeps its slot of {@link TransportOptions#getMaxRequests()} while waiting, so size the limits
+ * for retries when making many asynchronous calls. The same holds for the in-flight slots of {@link RateLimit}s,
+ * each retry takes a token of the rate limits again after the backoff.
+ */
+class RetryInterceptor implements Interceptor {
+
+    private static final String EXTERNAL_ID_PREFIX = "ext:";
+
+    private static final List<Function<WinstromRequest, Stream<List<String>>>> RECORD_IDS = Arrays.asList(
+            request -> ids(request.getAddressBooks(), AddressBook::getId),
+            request -> ids(request.getOrders(), Order::getId),
+            request -> ids(request.getReceivedInvoices(), ReceivedInvoice::getIds),
+            request -> ids(request.getIssuedInvoices(), IssuedInvoice::getId),
+            request -> ids(request.getInternalDocuments(), InternalDocument::getId),
+            request -> ids(request.getReceivables(), Receivable::getId),
+            request -> ids(request.getBanks(), Bank::getId),
+            request -> ids(request.getObligations(), Obligation::getId)
+    );
+
+    private static final List<Function<WinstromRequest, Stream<Boolean>>> REPLAYABLE_ITEMS = Arrays.asList(
+            request -> records(request.getIssuedInvoices(),
+                    invoice -> replayable(invoice.getItems()) && isEmpty(invoice.getDeposits())),
+            request -> records(request.getObligations(), obligation -> replayable(obligation.getItems())),
+            request -> records(request.getBanks(), bank -> isEmpty(bank.getItems()))
+    );
+
+    private final RetryPolicy policy;
+
+    private final FlexibeeMetrics metrics;
+
+    private final Governor governor;
+
+    RetryInterceptor(RetryPolicy policy, FlexibeeMetrics metrics, Governor governor) {
+        this.policy = policy;
+        this.metrics = metrics;
+        this.governor = governor;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (policy.getMaxAttempts() == 1 || !isIdempotent(request)) {
+            return chain.proceed(request);
+        }
+        for (int attempt = 1; ; attempt++) {
+            boolean lastAttempt = attempt >= policy.getMaxAttempts();
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (lastAttempt || chain.call().isCanceled() || e instanceof CircuitBreakerOpenException) {
+                    throw e;
+                }
+                metrics.callRetried(MetricsEventListener.endpoint(request), attempt, 0);
+                sleep(policy.backoffNanos(attempt));
+                governor.awaitRetryToken(Governor.company(request.url()));
+                continue;
+            }
+            if (lastAttempt || !policy.isRetryable(response.code())) {
+                return response;
+            }
+            long delay = delayNanos(response, attempt);
+            if (delay < 0) {
+                return response;
+            }
+            response.close();
+            metrics.callRetried(MetricsEventListener.endpoint(request), attempt, response.code());
+            sleep(delay);
+            governor.awaitRetryToken(Governor.company(request.url()));
+        }
+    }
+
+    static boolean isIdempotent(Request request) {
+        if ("GET".equals(request.method()) || "HEAD".equals(request.method())) {
+            return true;
+        }
+        if (!"PUT".equals(request.method())) {
+            return false;
+        }
+        List<String> segments = request.url().pathSegments();
+        boolean addressedByPath = segments.get(segments.size() - 1).startsWith(EXTERNAL_ID_PREFIX);
+        Invocation invocation = request.tag(Invocation.class);
+        WinstromRequest body = invocation == null ? null : invocation.arguments().stream()
+                .filter(WinstromRequest.class::isInstance)
+                .map(WinstromRequest.class::cast)
+                .findFirst()
+                .orElse(null);
+        if (body == null) {
+            return addressedByPath;
+        }
+        return (addressedByPath || identifiedByExternalIds(body)) && replayableItems(body);
+    }
+
+    private static boolean identifiedByExternalIds(WinstromRequest request) {
+        return RECORD_IDS.stream()
+                .flatMap(section -> section.apply(request))
+                .allMatch(ids -> ids != null && ids.stream().anyMatch(id -> id != null && id.startsWith(EXTERNAL_ID_PREFIX)));
+    }
+
+    private static boolean replayableItems(WinstromRequest request) {
+        return REPLAYABLE_ITEMS.stream()
+                .flatMap(section -> section.apply(request))
+                .allMatch(Boolean::booleanValue);
+    }
+
+    private static boolean replayable(IssuedInvoiceItems items) {
+        return items == null || isEmpty(items.getItems()) || Boolean.TRUE.equals(items.getRemoveAllItems())
+                || items.getItems().stream().allMatch(item -> item != null && item.getId() != null);
+    }
+
+    private static boolean replayable(ObligationItems items) {
+        return items == null || isEmpty(items.getItems()) || Boolean.TRUE.equals(items.getRemoveAllItems());
+    }
+
+    private static boolean isEmpty(Collection<?> collection) {
+        return collection == null || collection.isEmpty();
+    }
+
+    private static <T> Stream<Boolean> records(Collection<T> records, Predicate<T> replayable) {
+        return records == null ? Stream.empty() : records.stream().filter(Objects::nonNull).map(replayable::test);
+    }
+
+    private static <T> Stream<List<String>> ids(Collection<T> records, Function<T, List<String>> ids) {
+        return records == null ? Stream.empty() : records.stream().filter(Objects::nonNull).map(ids);
+    }
+
+    private long delayNanos(Response response, int attempt) {
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter != null) {
+            Duration duration = parseRetryAfter(response, retryAfter);
+            if (duration != null) {
+                return policy.retryAfterNanos(duration);
+            }
+        }
+        return policy.backoffNanos(attempt);
+    }
+
+    private static Duration parseRetryAfter(Response response, String retryAfter) {
+        try {
+            return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            Date date = response.headers().getDate("Retry-After");
+            return date != null ? Duration.ofMillis(date.getTime() - System.currentTimeMillis()) : null;
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * When and how often idempotent calls are retried, set by {@link FlexibeeClientRegistry.FlexibeeClientRegistryBuilder#retryPolicy}.
+ * <p>
+ * Calls are retried on I/O failures and on retryable status codes, after an exponentially growing backoff randomized
+ * by jitter. A {@code Retry-After} header takes precedence over the backoff, a call asked to wait longer than
+ * {@code maxRetryAfter} is not retried.
+ */
+public class RetryPolicy {
+
+    public static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+    public static final RetryPolicy DEFAULT = builder().build();
+
+    /**
+     * Attempts including the first one.
+     */
+    @Getter
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    private final double multiplier;
+
+    private final double jitter;
+
+    private final long maxRetryAfterNanos;
+
+    private final Set<Integer> retryableStatusCodes;
+
+    /**
+     * @param maxAttempts          3 by default
+     * @param initialBackoff       before the first retry, 200 ms by default
+     * @param maxBackoff           5 s by default
+     * @param multiplier           backoff growth per retry, 2 by default
+     * @param jitter               share of the backoff randomized, between 0 and 1, 0.5 by default
+     * @param maxRetryAfter        longest {@code Retry-After} honored, 30 s by default
+     * @param retryableStatusCodes 429, 502, 503 and 504 by default
+     */
+    @Builder
+    private RetryPolicy(Integer maxAttempts, Duration initialBackoff, Duration maxBackoff, Double multiplier, Double jitter,
+                        Duration maxRetryAfter, Set<Integer> retryableStatusCodes) {
+        this.maxAttempts = maxAttempts != null ? maxAttempts : 3;
+        this.initialBackoffNanos = (initialBackoff != null ? initialBackoff : Duration.ofMillis(200)).toNanos();
+        this.maxBackoffNanos = (maxBackoff != null ? maxBackoff : Duration.ofSeconds(5)).toNanos();
+        this.multiplier = multiplier != null ? multiplier : 2;
+        this.jitter = jitter != null ? jitter : 0.5;
+        this.maxRetryAfterNanos = (maxRetryAfter != null ? maxRetryAfter : Duration.ofSeconds(30)).toNanos();
+        this.retryableStatusCodes = Collections.unmodifiableSet(new HashSet<>(retryableStatusCodes != null
+                ? retryableStatusCodes : Arrays.asList(429, 502, 503, 504)));
+        if (this.maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is needed: " + this.maxAttempts);
+        }
+        if (this.jitter < 0 || this.jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1: " + this.jitter);
+        }
+    }
+
+    public boolean isRetryable(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * @param retry 1 for the first retry
+     */
+    long backoffNanos(int retry) {
+        double backoff = Math.min(maxBackoffNanos, initialBackoffNanos * Math.pow(multiplier, retry - 1));
+        return (long) (backoff * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * @return delay asked by {@code Retry-After}, -1 when it is longer than the policy tolerates
+     */
+    long retryAfterNanos(Duration retryAfter) {
+        long nanos = Math.max(0, retryAfter.toNanos());
+        return nanos > maxRetryAfterNanos ? -1 : nanos;
+    }
+}
@@ -0,0 +1,62 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import com.adleritech.flexibee.core.api.FlexibeeClient.FlexibeeException;
+
+/**
+ * Coalesces concurrent identical calls - the first caller of a key executes the call, callers arriving while it is
+ * in flight wait for it and share its result or exception. Nothing is cached once the call completes.
+ */
+class SingleFlight {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <T> T execute(Object key, FlexibeeSupplier<T> call) throws IOException, FlexibeeException {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+        // the flight leaves the map before it completes, callers arriving later must not get an already known result
+        try {
+            T result = call.get();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (IOException | FlexibeeException | RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> flight) throws IOException, FlexibeeException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for coalesced call");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof FlexibeeException) {
+                throw (FlexibeeException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Tolerant reader of {@code $sum} responses. Every numeric leaf element is a total named by the nearest element
+ * not named {@code value} or {@code values}, so the flat {@code <sumCelkem>10</sumCelkem>}, the
+ * {@code <sumCelkem><value>10</value></sumCelkem>} and FlexiBee's nested
+ * {@code <sumCelkem><values><value><value>10</value></value></values></sumCelkem>} shapes are understood.
+ * The first number of a total wins, other content is ignored.
+ */
+class SumReader {
+
+    private static final String VALUE = "value";
+
+    private static final String VALUES = "values";
+
+    private final Map<String, BigDecimal> sums = new LinkedHashMap<>();
+
+    private OptionalLong rowCount = OptionalLong.empty();
+
+    static SumReader read(InputStream inputStream) throws IOException {
+        SumReader result = new SumReader();
+        try {
+            XMLStreamReader reader = XmlRecordScanner.INPUT_FACTORY.createXMLStreamReader(inputStream, "UTF-8");
+            try {
+                result.parse(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot read FlexiBee sum response: " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    Map<String, BigDecimal> getSums() {
+        return sums;
+    }
+
+    /**
+     * Value of the {@code rowCount} root attribute, if FlexiBee sent it.
+     */
+    OptionalLong getRowCount() {
+        return rowCount;
+    }
+
+    private void parse(XMLStreamReader reader) throws XMLStreamException {
+        Deque<String> path = new ArrayDeque<>();
+        StringBuilder text = new StringBuilder();
+        boolean leaf = false;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamReader.START_ELEMENT:
+                    if (path.isEmpty()) {
+                        String count = reader.getAttributeValue(null, "rowCount");
+                        if (count != null) {
+                            rowCount = OptionalLong.of(Long.parseLong(count.trim()));
+                        }
+                    }
+                    path.push(reader.getLocalName());
+                    text.setLength(0);
+                    leaf = true;
+                    break;
+                case XMLStreamReader.CHARACTERS:
+                case XMLStreamReader.CDATA:
+                    text.append(reader.getText());
+                    break;
+                case XMLStreamReader.END_ELEMENT:
+                    String name = path.pop();
+                    if (leaf && !path.isEmpty()) {
+                        String key = key(name, path);
+                        BigDecimal value = number(text.toString());
+                        if (value != null && key != null) {
+                            sums.putIfAbsent(key, value);
+                        }
+                    }
+                    leaf = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @param ancestors names of the enclosing elements, the nearest first
+     */
+    private static String key(String name, Deque<String> ancestors) {
+        if (!isValue(name)) {
+            return name;
+        }
+        for (String ancestor : ancestors) {
+            if (!isValue(ancestor)) {
+                return ancestor;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isValue(String name) {
+        return VALUE.equals(name) || VALUES.equals(name);
+    }
+
+    private static BigDecimal number(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(trimmed);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
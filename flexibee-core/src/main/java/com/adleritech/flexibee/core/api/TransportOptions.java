@@ -0,0 +1,85 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+/**
+ * Connection pool, timeouts and dispatcher limits of the transport, set by
+ * {@link FlexibeeClientRegistry.FlexibeeClientRegistryBuilder#transportOptions} or {@link FlexibeeClient#create}.
+ * Defaults keep the OkHttp defaults except the 30 s read timeout.
+ * <p>
+ * Slow endpoints (e.g. PDF generation) can get their own read and call timeouts, keyed by the name of the API method
+ * as reported to {@link FlexibeeMetrics}, e.g. {@code downloadIssuedInvoiceAsPdf}. The call timeout bounds the read
+ * timeout, so a read timeout override longer than the call timeout of its endpoint is rejected.
+ */
+@Getter
+public class TransportOptions {
+
+    public static final TransportOptions DEFAULT = builder().build();
+
+    private final int maxIdleConnections;
+
+    private final Duration keepAlive;
+
+    private final Duration connectTimeout;
+
+    private final Duration readTimeout;
+
+    private final Duration writeTimeout;
+
+    private final Duration callTimeout;
+
+    private final int maxRequests;
+
+    private final int maxRequestsPerHost;
+
+    private final boolean http2;
+
+    private final Map<String, Duration> readTimeoutOverrides;
+
+    private final Map<String, Duration> callTimeoutOverrides;
+
+    /**
+     * @param maxIdleConnections   pooled idle connections, 5 by default
+     * @param keepAlive            how long an idle connection is kept, 5 min by default
+     * @param connectTimeout       10 s by default
+     * @param readTimeout          30 s by default
+     * @param writeTimeout         10 s by default
+     * @param callTimeout          whole call including retries and redirects, none by default
+     * @param maxRequests          concurrent asynchronous calls, 64 by default
+     * @param maxRequestsPerHost   concurrent asynchronous calls of one host, 5 by default
+     * @param http2                negotiate HTTP/2 over TLS where the server and JVM support it, HTTP/1.1 only if off,
+     *                             on by default
+     * @param readTimeoutOverrides read timeouts of particular endpoints
+     * @param callTimeoutOverrides call timeouts of particular endpoints, zero for none
+     */
+    @Builder
+    private TransportOptions(Integer maxIdleConnections, Duration keepAlive, Duration connectTimeout, Duration readTimeout,
+                             Duration writeTimeout, Duration callTimeout, Integer maxRequests, Integer maxRequestsPerHost, Boolean http2,
+                             @Singular Map<String, Duration> readTimeoutOverrides, @Singular Map<String, Duration> callTimeoutOverrides) {
+        this.maxIdleConnections = maxIdleConnections != null ? maxIdleConnections : 5;
+        this.keepAlive = keepAlive != null ? keepAlive : Duration.ofMinutes(5);
+        this.connectTimeout = connectTimeout != null ? connectTimeout : Duration.ofSeconds(10);
+        this.readTimeout = readTimeout != null ? readTimeout : Duration.ofSeconds(30);
+        this.writeTimeout = writeTimeout != null ? writeTimeout : Duration.ofSeconds(10);
+        this.callTimeout = callTimeout != null ? callTimeout : Duration.ZERO;
+        this.maxRequests = maxRequests != null ? maxRequests : 64;
+        this.maxRequestsPerHost = maxRequestsPerHost != null ? maxRequestsPerHost : 5;
+        this.http2 = http2 != null ? http2 : true;
+        this.readTimeoutOverrides = Collections.unmodifiableMap(new HashMap<>(readTimeoutOverrides));
+        this.callTimeoutOverrides = Collections.unmodifiableMap(new HashMap<>(callTimeoutOverrides));
+        this.readTimeoutOverrides.forEach((endpoint, endpointReadTimeout) -> {
+            Duration endpointCallTimeout = this.callTimeoutOverrides.getOrDefault(endpoint, this.callTimeout);
+            if (!endpointCallTimeout.isZero() && endpointReadTimeout.compareTo(endpointCallTimeout) > 0) {
+                throw new IllegalArgumentException("Read timeout of " + endpoint + " exceeds its call timeout " + endpointCallTimeout
+                        + ", override the call timeout as well");
+            }
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.simpleframework.xml.Root;
+import org.simpleframework.xml.Serializer;
+
+import com.adleritech.flexibee.core.api.transformers.Factory;
+
+/**
+ * Streaming reader of FlexiBee XML responses, yields domain objects one by one while the document is still being read,
+ * e.g. {@code WinstromReader.open(body.byteStream(), AddressBook.class)} for an {@code adresar} listing or
+ * {@code WinstromReader.open(body.byteStream(), "result", Result.class)} for import results.
+ * <p>
+ * Records are mapped by the SimpleXML serializer in non-strict mode, elements not present on the domain class
+ * are ignored. Parsing errors are thrown as {@link UncheckedIOException} from {@link #hasNext()}/{@link #next()}.
+ */
+public class WinstromReader<T> implements Iterator<T>, Closeable {
+
+    private static final Serializer SERIALIZER = Factory.persister();
+
+    private final XmlRecordScanner scanner;
+
+    private final Class<T> type;
+
+    private XmlRecordScanner.RawRecord nextRecord;
+
+    private boolean finished;
+
+    private WinstromReader(XmlRecordScanner scanner, Class<T> type) {
+        this.scanner = scanner;
+        this.type = type;
+    }
+
+    /**
+     * Opens reader of elements named by the {@link Root} annotation of the type.
+     */
+    public static <T> WinstromReader<T> open(InputStream inputStream, Class<T> type) throws IOException {
+        return open(inputStream, elementName(type), type);
+    }
+
+    public static <T> WinstromReader<T> open(InputStream inputStream, String elementName, Class<T> type) throws IOException {
+        return new WinstromReader<>(new XmlRecordScanner(inputStream, Collections.singleton(elementName)), type);
+    }
+
+    static String elementName(Class<?> type) {
+        Root root = type.getAnnotation(Root.class);
+        if (root != null && !root.name().isEmpty()) {
+            return root.name();
+        }
+        String name = type.getSimpleName();
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    static <T> T read(Class<T> type, String xml) throws IOException {
+        try {
+            return SERIALIZER.read(type, xml, false);
+        } catch (Exception e) {
+            throw new IOException("Cannot map FlexiBee record to " + type.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Attributes of the {@code winstrom} root element, available once the first record was read.
+     */
+    public Map<String, String> getRootAttributes() {
+        return scanner.getRootAttributes();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRecord == null && !finished) {
+            try {
+                nextRecord = scanner.next();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finished = nextRecord == null;
+        }
+        return nextRecord != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        XmlRecordScanner.RawRecord record = nextRecord;
+        nextRecord = null;
+        try {
+            return read(type, record.getXml());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sequential stream over the remaining records, closing the stream closes the reader.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        scanner.close();
+    }
+}
@@ -0,0 +1,149 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import lombok.Value;
+
+/**
+ * Pull parser cutting a FlexiBee XML document into records - subtrees of elements with the given names - so that
+ * only one record is held in memory at a time. Matched subtrees are not searched for nested matches.
+ * Without element names every child of the root element is a record.
+ */
+class XmlRecordScanner implements Closeable {
+
+    static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private static final XMLEventFactory EVENT_FACTORY = XMLEventFactory.newInstance();
+
+    private final InputStream inputStream;
+
+    private final XMLEventReader reader;
+
+    private final Set<String> elementNames;
+
+    private Map<String, String> rootAttributes;
+
+    XmlRecordScanner(InputStream inputStream, Set<String> elementNames) throws IOException {
+        this.inputStream = inputStream;
+        this.elementNames = elementNames;
+        try {
+            this.reader = INPUT_FACTORY.createXMLEventReader(inputStream, "UTF-8");
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot read FlexiBee response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Attributes of the document root element, e.g. {@code version} or {@code rowCount}, available once
+     * the first record was read or the document was exhausted.
+     */
+    Map<String, String> getRootAttributes() {
+        return rootAttributes != null ? rootAttributes : Collections.emptyMap();
+    }
+
+    /**
+     * @return next record or null at the end of the document
+     */
+    RawRecord next() throws IOException {
+        try {
+            while (reader.hasNext()) {
+                XMLEvent event = reader.nextEvent();
+                if (!event.isStartElement()) {
+                    continue;
+                }
+                StartElement element = event.asStartElement();
+                if (rootAttributes == null) {
+                    rootAttributes = attributes(element);
+                    if (elementNames == null || !elementNames.contains(name(element))) {
+                        continue;
+                    }
+                }
+                if (elementNames == null || elementNames.contains(name(element))) {
+                    return new RawRecord(name(element), attributes(element), copySubtree(element));
+                }
+            }
+            if (rootAttributes == null) {
+                rootAttributes = Collections.emptyMap();
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot read FlexiBee response: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // the underlying stream is closed below anyway
+        }
+        inputStream.close();
+    }
+
+    private String copySubtree(StartElement start) throws XMLStreamException {
+        StringWriter xml = new StringWriter();
+        XMLEventWriter writer = OUTPUT_FACTORY.createXMLEventWriter(xml);
+        writer.add(EVENT_FACTORY.createStartElement("", "", name(start), start.getAttributes(), null));
+        int depth = 1;
+        while (depth > 0) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                depth--;
+            }
+            writer.add(event);
+        }
+        writer.close();
+        return xml.toString();
+    }
+
+    private static String name(StartElement element) {
+        return element.getName().getLocalPart();
+    }
+
+    private static Map<String, String> attributes(StartElement element) {
+        Map<String, String> attributes = new HashMap<>();
+        for (Iterator<?> it = element.getAttributes(); it.hasNext(); ) {
+            Attribute attribute = (Attribute) it.next();
+            attributes.put(attribute.getName().getLocalPart(), attribute.getValue());
+        }
+        return attributes;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    @Value
+    static class RawRecord {
+        String name;
+        Map<String, String> attributes;
+        String xml;
+    }
+}
@@ -79,4 +79,7 @@ public class InternalDocument {
     @Element(name="poznam", required = false)
     private String note;
 
+    @Element(name = "kod", required = false)
+    private String code;
+
 }
@@ -124,4 +124,7 @@ public class IssuedInvoice {
     @Element(name = "sumOsv", required = false)
     private BigDecimal vatFreeSum;
 
+    @Element(name = "kod", required = false)
+    private String code;
+
 }
@@ -124,4 +124,7 @@ public class Obligation {
     @Element(name = "polozkyFaktury", required = false)
     private ObligationItems items;
 
+    @Element(name = "kod", required = false)
+    private String code;
+
 }
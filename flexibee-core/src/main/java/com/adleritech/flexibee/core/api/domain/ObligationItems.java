@@ -29,4 +29,8 @@ public class ObligationItems {
     public List<ObligationItem> getItems() {
         return items;
     }
+
+    public Boolean getRemoveAllItems() {
+        return removeAllItems;
+    }
 }
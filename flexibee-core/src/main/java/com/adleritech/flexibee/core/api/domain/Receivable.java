@@ -103,4 +103,7 @@ public class Receivable {
     @Element(name="stredisko", required = false)
     private String department;
 
+    @Element(name = "kod", required = false)
+    private String code;
+
 }
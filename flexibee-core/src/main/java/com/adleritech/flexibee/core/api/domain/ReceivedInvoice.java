@@ -110,4 +110,7 @@ public class ReceivedInvoice {
     @Element(name="poznam", required = false)
     private String note;
 
+    @Element(name = "kod", required = false)
+    private String code;
+
 }
@@ -2,20 +2,41 @@ package com.adleritech.flexibee.core.api.transformers;
 
 import org.simpleframework.xml.transform.Transform;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 public class EnumTransform implements Transform<Enum> {
-    private final Class type;
+
+    private static final ClassValue<EnumTransform> INSTANCES = new ClassValue<EnumTransform>() {
+        @Override
+        protected EnumTransform computeValue(Class<?> type) {
+            return new EnumTransform(type);
+        }
+    };
+
+    /**
+     * Constants by their {@code toString()}, when two constants share it the first declared wins.
+     */
+    private final Map<String, Enum> constants;
 
     public EnumTransform(Class type) {
-        this.type = type;
+        Map<String, Enum> constants = new HashMap<>();
+        for (Object o : type.getEnumConstants()) {
+            constants.putIfAbsent(o.toString(), (Enum) o);
+        }
+        this.constants = Collections.unmodifiableMap(constants);
+    }
+
+    /**
+     * Shared, lazily created transform of the enum type.
+     */
+    public static EnumTransform of(Class type) {
+        return INSTANCES.get(type);
     }
 
     public Enum read(String value) throws Exception {
-        for (Object o : type.getEnumConstants()) {
-            if (o.toString().equals(value)) {
-                return (Enum) o;
-            }
-        }
-        return null;
+        return constants.get(value);
     }
 
     public String write(Enum value) throws Exception {
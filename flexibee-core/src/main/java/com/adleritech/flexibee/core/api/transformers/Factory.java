@@ -3,23 +3,18 @@ package com.adleritech.flexibee.core.api.transformers;
 import org.simpleframework.xml.core.Persister;
 import org.simpleframework.xml.transform.Matcher;
 
-import java.time.LocalDate;
-
 public class Factory {
 
     public static Persister persister() {
-        return new Persister(matchers());
+        return persister(matchers());
+    }
+
+    public static Persister persister(Matcher matcher) {
+        return new Persister(matcher);
     }
 
     public static Matcher matchers() {
-        return type -> {
-            if (type.isEnum()) {
-                return new EnumTransform(type);
-            } else if (type.isInstance(LocalDate.now())) {
-                return new LocalDateTransform();
-            }
-            return null;
-        };
+        return TransformRegistry.defaults();
     }
 
 }
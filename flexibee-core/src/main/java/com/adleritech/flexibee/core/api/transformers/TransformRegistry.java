@@ -0,0 +1,56 @@
+package com.adleritech.flexibee.core.api.transformers;
+
+import org.simpleframework.xml.transform.Matcher;
+import org.simpleframework.xml.transform.Transform;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable {@link Matcher} resolving transforms by exact type with a single map lookup, enums fall back
+ * to the shared {@link EnumTransform} of their type. Types not known here are left to the SimpleXML defaults.
+ * <p>
+ * Transforms are shared among all persisters and must be stateless. Further types are registered
+ * with {@link #with(Class, Transform)}, which returns a new registry.
+ * <p>
+ * SimpleXML caches the matched transform per type in each persister, so the registry is consulted once per type,
+ * not once per record.
+ */
+public final class TransformRegistry implements Matcher {
+
+    private static final TransformRegistry DEFAULTS = new TransformRegistry(Collections.emptyMap())
+            .with(LocalDate.class, new LocalDateTransform());
+
+    private final Map<Class<?>, Transform<?>> transforms;
+
+    private TransformRegistry(Map<Class<?>, Transform<?>> transforms) {
+        this.transforms = transforms;
+    }
+
+    public static TransformRegistry defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @return registry with the transform of the type added or replaced
+     */
+    public <T> TransformRegistry with(Class<T> type, Transform<? extends T> transform) {
+        Map<Class<?>, Transform<?>> transforms = new HashMap<>(this.transforms);
+        transforms.put(type, transform);
+        return new TransformRegistry(Collections.unmodifiableMap(transforms));
+    }
+
+    @Override
+    public Transform match(Class type) {
+        Transform<?> transform = transforms.get(type);
+        if (transform != null) {
+            return transform;
+        }
+        if (type.isEnum()) {
+            return EnumTransform.of(type);
+        }
+        return null;
+    }
+}
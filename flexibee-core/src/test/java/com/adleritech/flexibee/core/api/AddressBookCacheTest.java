@@ -0,0 +1,180 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.AddressBook;
+import com.adleritech.flexibee.core.api.domain.AddressBookResponse;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AddressBookCacheTest {
+    private final FlexibeeClient.Api api = mock(FlexibeeClient.Api.class);
+    private final Converter<ResponseBody, WinstromResponse> errorConverter = new WinstromResponseConverter();
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AddressBookCache cache = new AddressBookCache(2, Duration.ofMinutes(10), Duration.ofSeconds(30), clock::get);
+
+    private final FlexibeeClient flexibeeClient = new FlexibeeClient("winstrom", api, errorConverter).withAddressBookCache(cache);
+
+    private final Call<AddressBookResponse> found = mock(Call.class);
+    private final Call<AddressBookResponse> notFound = mock(Call.class);
+
+    @Before
+    public void setUp() throws Exception {
+        AddressBookResponse response = AddressBookResponse.builder()
+                .addressBook(singletonList(AddressBook.builder().regNo("00001350").build()))
+                .build();
+        when(found.execute()).thenReturn(Response.success(response));
+        when(notFound.execute()).thenReturn(Response.error(404, ResponseBody.create(MediaType.parse("plain/text"), "NotFound")));
+        when(api.findAddressBookByRegNo("winstrom", "00001350")).thenReturn(found);
+        when(api.findAddressBookByRegNo("winstrom", "404")).thenReturn(notFound);
+    }
+
+    @Test
+    public void cachesFoundLookup() throws Exception {
+        AddressBookResponse first = flexibeeClient.findAddressBookByRegNo("00001350");
+        AddressBookResponse second = flexibeeClient.findAddressBookByRegNo("00001350");
+
+        assertThat(second).isSameAs(first);
+        verify(found, times(1)).execute();
+    }
+
+    @Test
+    public void expiresAfterTtl() throws Exception {
+        flexibeeClient.findAddressBookByRegNo("00001350");
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        flexibeeClient.findAddressBookByRegNo("00001350");
+
+        verify(found, times(2)).execute();
+    }
+
+    @Test
+    public void notFoundHasOwnTtl() throws Exception {
+        assertNotFound();
+        clock.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertNotFound();
+        verify(notFound, times(1)).execute();
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNotFound();
+        verify(notFound, times(2)).execute();
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        when(api.findAddressBookByCode("winstrom", "A")).thenReturn(found);
+        when(api.findAddressBookByCode("winstrom", "B")).thenReturn(found);
+
+        flexibeeClient.findAddressBookByRegNo("00001350");
+        flexibeeClient.findAddressBookByCode("A");
+        flexibeeClient.findAddressBookByCode("B");
+        flexibeeClient.findAddressBookByRegNo("00001350");
+
+        assertThat(cache.size()).isEqualTo(2);
+        verify(found, times(4)).execute();
+    }
+
+    @Test
+    public void updateInvalidatesCompany() throws Exception {
+        Call<WinstromResponse> update = mock(Call.class);
+        when(update.execute()).thenReturn(Response.success(new WinstromResponse()));
+        when(api.updateAddressBook(any(), any(), any())).thenReturn(update);
+
+        flexibeeClient.findAddressBookByRegNo("00001350");
+        flexibeeClient.updateAddressBook("1", new WinstromRequest());
+        flexibeeClient.findAddressBookByRegNo("00001350");
+
+        verify(found, times(2)).execute();
+    }
+
+    @Test
+    public void asyncCreateInvalidatesCompany() throws Exception {
+        Call<WinstromResponse> create = mock(Call.class);
+        doAnswer(invocation -> {
+            Callback<WinstromResponse> callback = (Callback<WinstromResponse>) invocation.getArguments()[0];
+            callback.onResponse(create, Response.success(new WinstromResponse()));
+            return null;
+        }).when(create).enqueue(any());
+        when(api.createAddressBook(any(), any())).thenReturn(create);
+
+        flexibeeClient.findAddressBookByRegNo("00001350");
+        flexibeeClient.async().createAddressBook(new WinstromRequest()).get();
+        flexibeeClient.findAddressBookByRegNo("00001350");
+
+        verify(found, times(2)).execute();
+    }
+
+    @Test
+    public void asyncLookupsShareTheCache() throws Exception {
+        Call<AddressBookResponse> asyncFound = mock(Call.class);
+        doAnswer(invocation -> {
+            Callback<AddressBookResponse> callback = (Callback<AddressBookResponse>) invocation.getArguments()[0];
+            callback.onResponse(asyncFound, found.execute());
+            return null;
+        }).when(asyncFound).enqueue(any());
+        when(api.findAddressBookByCode("winstrom", "A")).thenReturn(asyncFound);
+
+        AddressBookResponse first = flexibeeClient.async().findAddressBookByCode("A").get();
+        AddressBookResponse second = flexibeeClient.async().findAddressBookByCode("A").get();
+        AddressBookResponse blocking = flexibeeClient.findAddressBookByCode("A");
+
+        assertThat(second).isSameAs(first);
+        assertThat(blocking).isSameAs(first);
+        verify(asyncFound, times(1)).enqueue(any());
+    }
+
+    @Test
+    public void otherOriginsAreNotShared() throws Exception {
+        FlexibeeClient otherUser = new FlexibeeClient("other@http://localhost/", "winstrom", api, errorConverter, new SingleFlight())
+                .withAddressBookCache(cache);
+
+        flexibeeClient.findAddressBookByRegNo("00001350");
+        otherUser.findAddressBookByRegNo("00001350");
+        otherUser.invalidateAddressBookCache();
+        flexibeeClient.findAddressBookByRegNo("00001350");
+
+        verify(found, times(2)).execute();
+    }
+
+    @Test
+    public void otherCompaniesAreNotAffected() throws Exception {
+        FlexibeeClient otherCompany = new FlexibeeClient("other", api, errorConverter).withAddressBookCache(cache);
+        when(api.findAddressBookByRegNo("other", "00001350")).thenReturn(found);
+
+        flexibeeClient.findAddressBookByRegNo("00001350");
+        otherCompany.findAddressBookByRegNo("00001350");
+        cache.invalidate("other");
+        flexibeeClient.findAddressBookByRegNo("00001350");
+
+        verify(found, times(2)).execute();
+    }
+
+    private void assertNotFound() throws Exception {
+        try {
+            flexibeeClient.findAddressBookByRegNo("404");
+            fail();
+        } catch (FlexibeeClient.NotFound expected) {
+            // expected
+        }
+    }
+}
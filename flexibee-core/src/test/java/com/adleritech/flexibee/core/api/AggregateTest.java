@@ -0,0 +1,128 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.PaymentStatus;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AggregateTest {
+
+    private final MockWebServer server = new MockWebServer();
+
+    private FlexibeeClientRegistry registry;
+
+    private FlexibeeClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        registry = FlexibeeClientRegistry.create();
+        client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void readsFlatAndNestedTotals() throws Exception {
+        SumReader sums = SumReader.read(stream("<winstrom version=\"1.0\" rowCount=\"3\"><sum>"
+                + "<sumCelkem showAs=\"Celkem\"><value>1210.50</value></sumCelkem>"
+                + "<zbyvaUhradit>100</zbyvaUhradit>"
+                + "<poznamka>text</poznamka><prazdny/>"
+                + "</sum></winstrom>"));
+
+        assertThat(sums.getRowCount().getAsLong()).isEqualTo(3);
+        assertThat(sums.getSums()).containsOnlyKeys("sumCelkem", "zbyvaUhradit");
+        assertThat(sums.getSums().get("sumCelkem")).isEqualByComparingTo("1210.50");
+    }
+
+    @Test
+    public void readsTotalsNestedInValues() throws Exception {
+        SumReader sums = SumReader.read(stream("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+                + "<winstrom version=\"1.0\" rowCount=\"2\">\n"
+                + "  <sum>\n"
+                + "    <sumZklZakl showAs=\"Základ\" name=\"Základ\">\n"
+                + "      <values>\n"
+                + "        <value name=\"Základ\" showAs=\"1 000,00\">\n"
+                + "          <value>1000.0</value>\n"
+                + "        </value>\n"
+                + "      </values>\n"
+                + "    </sumZklZakl>\n"
+                + "    <sumCelkem showAs=\"Celkem\" name=\"Celkem\">\n"
+                + "      <values>\n"
+                + "        <value name=\"Celkem\" showAs=\"1 210,50\">\n"
+                + "          <value>1210.5</value>\n"
+                + "        </value>\n"
+                + "      </values>\n"
+                + "    </sumCelkem>\n"
+                + "  </sum>\n"
+                + "</winstrom>\n"));
+
+        assertThat(sums.getRowCount().getAsLong()).isEqualTo(2);
+        assertThat(sums.getSums()).containsOnlyKeys("sumZklZakl", "sumCelkem");
+        assertThat(sums.getSums().get("sumZklZakl")).isEqualByComparingTo("1000");
+        assertThat(sums.getSums().get("sumCelkem")).isEqualByComparingTo("1210.50");
+    }
+
+    @Test
+    public void aggregatesFilteredEvidence() throws Exception {
+        server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\" rowCount=\"2\"><sum>"
+                + "<sumCelkem>300</sumCelkem><zbyvaUhradit>120.5</zbyvaUhradit></sum></winstrom>"));
+        Filter<IssuedInvoice> unpaid = Filter.where(Evidence.ISSUED_INVOICE, "paymentStatus").isNull();
+
+        Aggregate<IssuedInvoice> aggregate = client.aggregate(Evidence.ISSUED_INVOICE, unpaid);
+
+        assertThat(aggregate.getRowCount()).isEqualTo(2);
+        assertThat(aggregate.getSum("sumTotal")).isEqualByComparingTo("300");
+        assertThat(aggregate.getSum("remainingToPay")).isEqualByComparingTo("120.5");
+        assertThat(aggregate.getSum("sumWithoutVat")).isEqualByComparingTo(BigDecimal.ZERO);
+        HttpUrl url = server.takeRequest().getRequestUrl();
+        assertThat(url.encodedPath()).isEqualTo("/c/winstrom/faktura-vydana/(stavUhrK%20is%20null)/$sum.xml");
+        assertThat(url.queryParameter("add-row-count")).isEqualTo("true");
+    }
+
+    @Test
+    public void countsSeparatelyWithoutRowCount() throws Exception {
+        server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\"><sum><sumCelkem>0</sumCelkem></sum></winstrom>"));
+        server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\" rowCount=\"7\"></winstrom>"));
+
+        Aggregate<IssuedInvoice> aggregate = client.aggregate(Evidence.ISSUED_INVOICE, null);
+
+        assertThat(aggregate.getRowCount()).isEqualTo(7);
+        assertThat(server.takeRequest().getRequestUrl().encodedPath()).isEqualTo("/c/winstrom/faktura-vydana/$sum.xml");
+        assertThat(server.takeRequest().getRequestUrl().queryParameter("limit")).isEqualTo("1");
+    }
+
+    @Test
+    public void aggregatesPerCurrency() throws Exception {
+        server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\" rowCount=\"1\"><sum><sumCelkem>10</sumCelkem></sum></winstrom>"));
+        server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\" rowCount=\"2\"><sum><sumCelkem>20</sumCelkem></sum></winstrom>"));
+        Filter<IssuedInvoice> partial = Filter.where(Evidence.ISSUED_INVOICE, "paymentStatus").eq(PaymentStatus.PARTIALLY);
+
+        Map<String, Aggregate<IssuedInvoice>> aggregates = client.aggregateByCurrency(Evidence.ISSUED_INVOICE, partial, "CZK", "EUR");
+
+        assertThat(aggregates).containsOnlyKeys("CZK", "EUR");
+        assertThat(aggregates.get("EUR").getSum("sumTotal")).isEqualByComparingTo("20");
+        assertThat(server.takeRequest().getRequestUrl().pathSegments().get(3))
+                .isEqualTo("(stavUhrK = 'stavUhr.castUhr' and mena = 'code:CZK')");
+    }
+
+    private static ByteArrayInputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
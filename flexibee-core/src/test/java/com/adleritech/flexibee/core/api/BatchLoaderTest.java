@@ -0,0 +1,118 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchLoaderTest {
+    private final FlexibeeClient.Api api = mock(FlexibeeClient.Api.class);
+    private final Converter<ResponseBody, WinstromResponse> errorConverter = new WinstromResponseConverter();
+
+    private final FlexibeeClient flexibeeClient = new FlexibeeClient("winstrom", api, errorConverter);
+
+    @Test
+    public void batchesInternalIdsIntoOneRequest() throws Exception {
+        respond("(id in (1,2,3))", 3, invoice("1", "VF1"), invoice("2", "VF2"));
+        BatchLoader<IssuedInvoice> loader = flexibeeClient.batchLoader(Evidence.ISSUED_INVOICE, 100, Duration.ofMinutes(1));
+
+        CompletableFuture<IssuedInvoice> first = loader.load("1");
+        CompletableFuture<IssuedInvoice> second = loader.load("2");
+        CompletableFuture<IssuedInvoice> missing = loader.load("3");
+        assertThat(loader.load("1")).isSameAs(first);
+        loader.flush();
+
+        assertThat(first.get().getVariableSymbol()).isEqualTo("VF1");
+        assertThat(second.get().getVariableSymbol()).isEqualTo("VF2");
+        try {
+            missing.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(FlexibeeClient.NotFound.class);
+        }
+        verify(api, times(1)).listFiltered(anyString(), anyString(), anyString(), anyInt(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    public void codesAreFilteredByCode() throws Exception {
+        respond("(kod in ('VF1','O\\'Neil'))", 2, invoice("1", "VF1"));
+        BatchLoader<IssuedInvoice> loader = flexibeeClient.batchLoader(Evidence.ISSUED_INVOICE, 100, Duration.ofMinutes(1));
+
+        CompletableFuture<IssuedInvoice> found = loader.load("code:VF1");
+        loader.load("code:O'Neil");
+        loader.flush();
+
+        assertThat(found.get().getVariableSymbol()).isEqualTo("VF1");
+    }
+
+    @Test
+    public void codesAreMatchedByKodProperty() throws Exception {
+        respond("(kod in ('VF1','VF2'))", 2,
+                "<faktura-vydana><id>1</id><kod>vf1 </kod><varSym>1</varSym></faktura-vydana>",
+                "<faktura-vydana><id>2</id><id>ext:SHOP:2</id><kod>VF2</kod><varSym>2</varSym></faktura-vydana>");
+        BatchLoader<IssuedInvoice> loader = flexibeeClient.batchLoader(Evidence.ISSUED_INVOICE, 100, Duration.ofMinutes(1));
+
+        CompletableFuture<IssuedInvoice> first = loader.load("code:VF1");
+        CompletableFuture<IssuedInvoice> second = loader.load("code:VF2");
+        loader.flush();
+
+        assertThat(first.get(1, TimeUnit.SECONDS).getVariableSymbol()).isEqualTo("1");
+        assertThat(second.get(1, TimeUnit.SECONDS).getVariableSymbol()).isEqualTo("2");
+    }
+
+    @Test
+    public void fullBatchIsSentImmediately() throws Exception {
+        respond("(id in (1,2))", 2, invoice("1", "VF1"), invoice("2", "VF2"));
+        BatchLoader<IssuedInvoice> loader = flexibeeClient.batchLoader(Evidence.ISSUED_INVOICE, 2, Duration.ofMinutes(1));
+
+        loader.load("1");
+        CompletableFuture<IssuedInvoice> second = loader.load("2");
+
+        assertThat(second.get(1, TimeUnit.SECONDS).getVariableSymbol()).isEqualTo("VF2");
+    }
+
+    @Test
+    public void windowTriggersFlush() throws Exception {
+        respond("(id in (1))", 1, invoice("1", "VF1"));
+        BatchLoader<IssuedInvoice> loader = flexibeeClient.batchLoader(Evidence.ISSUED_INVOICE, 100, Duration.ofMillis(5));
+
+        assertThat(loader.load("1").get(5, TimeUnit.SECONDS).getVariableSymbol()).isEqualTo("VF1");
+    }
+
+    private static String invoice(String id, String variableSymbol) {
+        return "<faktura-vydana><id>" + id + "</id><id>code:" + variableSymbol + "</id><varSym>" + variableSymbol + "</varSym></faktura-vydana>";
+    }
+
+    private void respond(String filter, int limit, String... records) {
+        String xml = "<winstrom version=\"1.0\">" + String.join("", records) + "</winstrom>";
+        Call<ResponseBody> call = mock(Call.class);
+        when(api.listFiltered("winstrom", "faktura-vydana", filter, 0, limit, "full", "id@A")).thenReturn(call);
+        doAnswer(invocation -> {
+            ((Callback<ResponseBody>) invocation.getArguments()[0])
+                    .onResponse(call, Response.success(ResponseBody.create(MediaType.parse("application/xml"), xml)));
+            return null;
+        }).when(call).enqueue(any());
+    }
+}
@@ -0,0 +1,152 @@
+package com.adleritech.flexibee.core.api;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.AddressBook;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.Result;
+import com.adleritech.flexibee.core.api.domain.Stats;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkImporterTest {
+
+    @Test
+    public void splitByRecordCount() {
+        BulkImporter importer = BulkImporter.builder().maxRecords(2).build();
+
+        List<WinstromRequest> chunks = importer.split(request(5));
+
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks.get(0).getIssuedInvoices()).hasSize(2);
+        assertThat(chunks.get(2).getIssuedInvoices()).extracting(IssuedInvoice::getVariableSymbol).containsExactly("4");
+    }
+
+    @Test
+    public void splitKeepsSectionsAndOrder() {
+        WinstromRequest request = WinstromRequest.builder()
+                .addressBook(AddressBook.builder().code("A").build())
+                .issuedInvoice(IssuedInvoice.builder().variableSymbol("1").build())
+                .build();
+
+        List<WinstromRequest> chunks = BulkImporter.builder().maxRecords(1).build().split(request);
+
+        assertThat(chunks).hasSize(2);
+        assertThat(chunks.get(0).getAddressBooks()).hasSize(1);
+        assertThat(chunks.get(0).getIssuedInvoices()).isEmpty();
+        assertThat(chunks.get(1).getIssuedInvoices()).hasSize(1);
+    }
+
+    @Test
+    public void splitTreatsNullSectionsAsEmpty() {
+        WinstromRequest request = new WinstromRequest();
+        request.setAddressBooks(null);
+        request.setIssuedInvoices(singletonList(IssuedInvoice.builder().variableSymbol("1").build()));
+
+        List<WinstromRequest> chunks = BulkImporter.builder().maxRecords(1).build().split(request);
+
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0).getIssuedInvoices()).hasSize(1);
+    }
+
+    @Test
+    public void splitBySerializedSize() {
+        BulkImporter importer = BulkImporter.builder().maxRecords(0).maxBytes(400L).build();
+
+        List<WinstromRequest> chunks = importer.split(request(10));
+
+        assertThat(chunks.size()).isGreaterThan(1).isLessThan(10);
+        assertThat(chunks.stream().mapToInt(chunk -> chunk.getIssuedInvoices().size()).sum()).isEqualTo(10);
+    }
+
+    @Test
+    public void mergesChunkResponses() throws Exception {
+        AtomicInteger ids = new AtomicInteger();
+        BulkImportResult result = BulkImporter.builder().maxRecords(3).parallelism(2).build()
+                .execute(request(7), chunk -> CompletableFuture.completedFuture(WinstromResponse.builder()
+                        .success(true)
+                        .stats(Stats.builder().created(chunk.getIssuedInvoices().size()).build())
+                        .results(singletonList(Result.builder().id(String.valueOf(ids.incrementAndGet())).build()))
+                        .build()));
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getChunks()).isEqualTo(3);
+        assertThat(result.getResponse().getStats().getCreated()).isEqualTo(7);
+        assertThat(result.getResponse().getResults()).hasSize(3);
+    }
+
+    @Test
+    public void failedChunkIsReported() throws Exception {
+        BulkImportResult result = BulkImporter.builder().maxRecords(2).build()
+                .execute(request(4), chunk -> {
+                    CompletableFuture<WinstromResponse> future = new CompletableFuture<>();
+                    if ("0".equals(chunk.getIssuedInvoices().get(0).getVariableSymbol())) {
+                        future.completeExceptionally(new IllegalStateException("boom"));
+                    } else {
+                        future.complete(WinstromResponse.builder().success(true).stats(Stats.builder().created(2).build()).build());
+                    }
+                    return future;
+                });
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getFailures()).hasSize(1);
+        assertThat(result.getFailures().get(0).getCause()).hasMessage("boom");
+        assertThat(result.getResponse().getStats().getCreated()).isEqualTo(2);
+    }
+
+    @Test
+    public void sectionsAreImportedInDependencyOrder() throws Exception {
+        WinstromRequest request = request(4);
+        request.getAddressBooks().add(AddressBook.builder().code("A").build());
+        request.getAddressBooks().add(AddressBook.builder().code("B").build());
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+        BulkImportResult result = BulkImporter.builder().maxRecords(1).parallelism(4).build()
+                .execute(request, chunk -> {
+                    if (chunk.getAddressBooks().isEmpty()) {
+                        events.add("invoice sent");
+                        return CompletableFuture.completedFuture(WinstromResponse.builder().success(true).build());
+                    }
+                    return CompletableFuture.supplyAsync(() -> {
+                        sleep(100);
+                        events.add("address book imported");
+                        return WinstromResponse.builder().success(true).build();
+                    });
+                });
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getChunks()).isEqualTo(6);
+        assertThat(events).containsExactly("address book imported", "address book imported",
+                "invoice sent", "invoice sent", "invoice sent", "invoice sent");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static WinstromRequest request(int invoices) {
+        WinstromRequest request = new WinstromRequest();
+        for (int i = 0; i < invoices; i++) {
+            request.getIssuedInvoices().add(IssuedInvoice.builder()
+                    .variableSymbol(String.valueOf(i))
+                    .company("code:ABCFIRM1#")
+                    .sumWithoutVat(BigDecimal.valueOf(1000))
+                    .build());
+        }
+        return request;
+    }
+}
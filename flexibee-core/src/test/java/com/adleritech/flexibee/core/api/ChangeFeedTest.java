@@ -0,0 +1,155 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.adleritech.flexibee.core.api.domain.AddressBook;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChangeFeedTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final FlexibeeClient.Api api = mock(FlexibeeClient.Api.class);
+    private final Converter<ResponseBody, WinstromResponse> errorConverter = new WinstromResponseConverter();
+
+    private final FlexibeeClient flexibeeClient = new FlexibeeClient("winstrom", api, errorConverter);
+
+    @Test
+    public void deliversTypedEventsAndStoresCheckpoint() throws Exception {
+        changes(1, 10,
+                "<faktura-vydana in-version=\"1\" operation=\"create\" timestamp=\"2018-01-01\"><id>10</id><id>code:VF1-0001/2018</id></faktura-vydana>",
+                "<adresar in-version=\"2\" operation=\"update\"><id>20</id></adresar>",
+                "<banka in-version=\"2\" operation=\"delete\"><id>30</id></banka>");
+        FileChangeCheckpoint checkpoint = new FileChangeCheckpoint(folder.getRoot().toPath().resolve("changes.version"));
+        List<ChangeEvent<IssuedInvoice>> invoices = new ArrayList<>();
+        List<ChangeEvent<AddressBook>> addressBooks = new ArrayList<>();
+
+        int delivered = new ChangeFeed(flexibeeClient, checkpoint, 10)
+                .addListener(Evidence.ISSUED_INVOICE, invoices::add)
+                .addListener(Evidence.ADDRESS_BOOK, addressBooks::add)
+                .poll();
+
+        assertThat(delivered).isEqualTo(2);
+        assertThat(invoices).hasSize(1);
+        assertThat(invoices.get(0).getOperation()).isEqualTo(ChangeEvent.Operation.CREATE);
+        assertThat(invoices.get(0).getVersion()).isEqualTo(1);
+        assertThat(invoices.get(0).getIds()).containsExactly("10", "code:VF1-0001/2018");
+        assertThat(addressBooks.get(0).getRecord().getId()).containsExactly("20");
+        assertThat(checkpoint.load().getAsLong()).isEqualTo(2);
+    }
+
+    @Test
+    public void resumesFromCheckpoint() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("changes.version");
+        FileChangeCheckpoint checkpoint = new FileChangeCheckpoint(file);
+        checkpoint.save(41);
+        changes(42, 10, "<adresar in-version=\"43\" operation=\"update\"><id>20</id></adresar>");
+        List<ChangeEvent<AddressBook>> addressBooks = new ArrayList<>();
+
+        new ChangeFeed(flexibeeClient, new FileChangeCheckpoint(file), 10)
+                .addListener(Evidence.ADDRESS_BOOK, addressBooks::add)
+                .poll();
+
+        assertThat(addressBooks).hasSize(1);
+        assertThat(checkpoint.load().getAsLong()).isEqualTo(43);
+    }
+
+    @Test
+    public void versionSplitAcrossPagesIsDeliveredOnce() throws Exception {
+        changes(1, 2,
+                "<adresar in-version=\"1\" operation=\"update\"><id>1</id></adresar>",
+                "<adresar in-version=\"2\" operation=\"update\"><id>2</id></adresar>");
+        changes(2, 3,
+                "<adresar in-version=\"2\" operation=\"update\"><id>2</id></adresar>",
+                "<adresar in-version=\"2\" operation=\"update\"><id>3</id></adresar>");
+        List<String> ids = new ArrayList<>();
+
+        new ChangeFeed(flexibeeClient, new InMemoryCheckpoint(), 2)
+                .addListener(Evidence.ADDRESS_BOOK, event -> ids.add(event.getIds().get(0)))
+                .poll();
+
+        assertThat(ids).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    public void failedListenerKeepsCheckpointBeforeFailedVersion() throws Exception {
+        changes(1, 10,
+                "<adresar in-version=\"1\" operation=\"update\"><id>1</id></adresar>",
+                "<adresar in-version=\"2\" operation=\"update\"><id>2</id></adresar>");
+        InMemoryCheckpoint checkpoint = new InMemoryCheckpoint();
+
+        try {
+            new ChangeFeed(flexibeeClient, checkpoint, 10)
+                    .addListener(Evidence.ADDRESS_BOOK, event -> {
+                        if (event.getVersion() == 2) {
+                            throw new IllegalStateException("boom");
+                        }
+                    })
+                    .poll();
+            fail();
+        } catch (ChangeFeed.ChangeListenerException e) {
+            assertThat(e.getCause()).hasMessage("boom");
+        }
+        assertThat(checkpoint.version).isEqualTo(1);
+    }
+
+    @Test
+    public void unreadableChangeFailsWithIOExceptionAndKeepsCheckpoint() throws Exception {
+        changes(1, 10,
+                "<adresar in-version=\"1\" operation=\"update\"><id>1</id></adresar>",
+                "<adresar in-version=\"2\" operation=\"rename\"><id>2</id></adresar>");
+        InMemoryCheckpoint checkpoint = new InMemoryCheckpoint();
+        List<String> ids = new ArrayList<>();
+
+        try {
+            new ChangeFeed(flexibeeClient, checkpoint, 10)
+                    .addListener(Evidence.ADDRESS_BOOK, event -> ids.add(event.getIds().get(0)))
+                    .poll();
+            fail();
+        } catch (IOException e) {
+            assertThat(e).hasMessageContaining("Unknown change operation: rename");
+        }
+        assertThat(ids).containsExactly("1");
+        assertThat(checkpoint.version).isEqualTo(1);
+    }
+
+    private void changes(long start, int limit, String... entries) throws Exception {
+        String xml = "<winstrom version=\"1.0\" globalVersion=\"100\">" + String.join("", entries) + "</winstrom>";
+        Call<ResponseBody> call = mock(Call.class);
+        when(api.changes("winstrom", start, limit)).thenReturn(call);
+        when(call.execute()).thenReturn(Response.success(ResponseBody.create(MediaType.parse("application/xml"), xml)));
+    }
+
+    private static class InMemoryCheckpoint implements ChangeCheckpoint {
+        private Long version;
+
+        @Override
+        public OptionalLong load() {
+            return version == null ? OptionalLong.empty() : OptionalLong.of(version);
+        }
+
+        @Override
+        public void save(long version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CircuitBreakerTest {
+    private static final String INVOICE = "<winstrom version=\"1.0\"><faktura-vydana><varSym>1</varSym></faktura-vydana></winstrom>";
+
+    private final List<String> transitions = new ArrayList<>();
+
+    private long now;
+
+    private final CircuitBreakerPolicy policy = CircuitBreakerPolicy.builder()
+            .windowSize(4)
+            .minimumCalls(4)
+            .failureRateThreshold(0.5)
+            .slowCallRateThreshold(0.75)
+            .slowCallDuration(Duration.ofSeconds(1))
+            .openDuration(Duration.ofSeconds(10))
+            .halfOpenCalls(2)
+            .listener((baseUrl, company, from, to) -> transitions.add(company + ":" + from + "->" + to))
+            .build();
+
+    private final CircuitBreaker breaker = new CircuitBreaker(policy, "http://localhost:80", "demo", () -> now);
+
+    @Test
+    public void opensOnFailureRateOnceMinimumCallsAreRecorded() {
+        call(true, 0);
+        call(true, 0);
+        call(false, 0);
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+
+        call(false, 0);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+        assertThat(transitions).containsExactly("demo:CLOSED->OPEN");
+    }
+
+    @Test
+    public void opensOnSlowCallRate() {
+        long slow = TimeUnit.SECONDS.toNanos(2);
+        call(false, slow);
+        call(false, slow);
+        call(false, 0);
+        call(false, slow);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+    }
+
+    @Test
+    public void oldOutcomesLeaveTheWindow() {
+        call(true, 0);
+        for (int i = 0; i < 6; i++) {
+            call(false, 0);
+        }
+        call(true, 0);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    public void halfOpenLetsLimitedTrialsThroughAndClosesWhenTheySucceed() {
+        open();
+        now += TimeUnit.SECONDS.toNanos(10);
+
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        assertThat(first).isNotEqualTo(CircuitBreaker.REJECTED);
+        assertThat(second).isNotEqualTo(CircuitBreaker.REJECTED);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+        assertThat(breaker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+
+        breaker.record(first, false, 0);
+        breaker.record(second, false, 0);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+        assertThat(transitions).containsExactly("demo:CLOSED->OPEN", "demo:OPEN->HALF_OPEN", "demo:HALF_OPEN->CLOSED");
+    }
+
+    @Test
+    public void failedTrialOpensAgain() {
+        open();
+        now += TimeUnit.SECONDS.toNanos(10);
+        long trial = breaker.tryAcquire();
+
+        breaker.record(trial, true, 0);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+    }
+
+    @Test
+    public void cancelledTrialGivesItsSlotBack() {
+        open();
+        now += TimeUnit.SECONDS.toNanos(10);
+        long cancelled = breaker.tryAcquire();
+        long succeeded = breaker.tryAcquire();
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+
+        breaker.release(cancelled);
+        breaker.record(succeeded, false, 0);
+
+        long later = breaker.tryAcquire();
+        assertThat(later).isNotEqualTo(CircuitBreaker.REJECTED);
+        breaker.record(later, false, 0);
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    public void interceptorReleasesTrialOfCancelledCall() throws Exception {
+        CircuitBreakerInterceptor interceptor = new CircuitBreakerInterceptor(policy, () -> now);
+        Request request = new Request.Builder().url("http://localhost/c/demo/faktura-vydana.xml").build();
+        Interceptor.Chain failing = chain(request, false);
+        when(failing.proceed(request)).thenThrow(new IOException("boom"));
+        for (int i = 0; i < 4; i++) {
+            try {
+                interceptor.intercept(failing);
+                fail();
+            } catch (IOException expected) {
+            }
+        }
+        now += TimeUnit.SECONDS.toNanos(10);
+        Interceptor.Chain cancelled = chain(request, true);
+        when(cancelled.proceed(request)).thenThrow(new IOException("Canceled"));
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                interceptor.intercept(cancelled);
+                fail();
+            } catch (IOException expected) {
+                assertThat(expected).isNotInstanceOf(CircuitBreakerOpenException.class);
+            }
+        }
+
+        assertThat(interceptor.state("http://localhost:80", "demo")).isEqualTo(CircuitState.HALF_OPEN);
+    }
+
+    @Test
+    public void trialOfEarlierRoundDoesNotCount() {
+        open();
+        now += TimeUnit.SECONDS.toNanos(10);
+        long stale = breaker.tryAcquire();
+        breaker.record(breaker.tryAcquire(), true, 0);
+        now += TimeUnit.SECONDS.toNanos(10);
+        long trial = breaker.tryAcquire();
+
+        breaker.release(stale);
+        breaker.record(stale, false, 0);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+        breaker.record(trial, false, 0);
+        assertThat(breaker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+        breaker.record(breaker.tryAcquire(), false, 0);
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    public void registryFailsFastWhileOpen() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        FlexibeeClientRegistry registry = FlexibeeClientRegistry.builder()
+                .retryPolicy(RetryPolicy.NONE)
+                .circuitBreakerPolicy(policy)
+                .build();
+        try {
+            FlexibeeClient client = registry.client("winstrom", "winstrom", "demo", server.url("/").toString());
+            FlexibeeClient other = registry.client("winstrom", "winstrom", "other", server.url("/").toString());
+            for (int i = 0; i < 4; i++) {
+                server.enqueue(new MockResponse().setResponseCode(503));
+            }
+            server.enqueue(new MockResponse().setBody(INVOICE));
+            for (int i = 0; i < 4; i++) {
+                try {
+                    client.getIssuedInvoice(String.valueOf(i));
+                    fail();
+                } catch (FlexibeeClient.FlexibeeException expected) {
+                }
+            }
+
+            try {
+                client.getIssuedInvoice("5");
+                fail();
+            } catch (CircuitBreakerOpenException expected) {
+                assertThat(expected.getCompany()).isEqualTo("demo");
+            }
+            assertThat(server.getRequestCount()).isEqualTo(4);
+            assertThat(other.getIssuedInvoice("1").getIssuedInvoice().getVariableSymbol()).isEqualTo("1");
+        } finally {
+            registry.close();
+            server.shutdown();
+        }
+    }
+
+    private static Interceptor.Chain chain(Request request, boolean cancelled) {
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        Call call = mock(Call.class);
+        when(chain.request()).thenReturn(request);
+        when(chain.call()).thenReturn(call);
+        when(call.isCanceled()).thenReturn(cancelled);
+        return chain;
+    }
+
+    private void call(boolean failure, long durationNanos) {
+        breaker.record(breaker.tryAcquire(), failure, durationNanos);
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(true, 0);
+        }
+        transitions.clear();
+        transitions.add("demo:CLOSED->OPEN");
+    }
+}
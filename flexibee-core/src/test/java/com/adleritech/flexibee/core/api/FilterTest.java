@@ -0,0 +1,89 @@
+package com.adleritech.flexibee.core.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.AddressBook;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.PaymentStatus;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class FilterTest {
+
+    @Test
+    public void rendersComparisonsOfDomainProperties() {
+        Filter<IssuedInvoice> filter = Filter.where(Evidence.ISSUED_INVOICE, "dueDate").lt(LocalDate.of(2024, 5, 1))
+                .and(Filter.where(Evidence.ISSUED_INVOICE, "paymentStatus").ne(PaymentStatus.FULLY))
+                .and(Filter.where(Evidence.ISSUED_INVOICE, "sumWithoutVat").gte(new BigDecimal("1E+3")));
+
+        assertThat(filter.toString())
+                .isEqualTo("(datSplat < '2024-05-01' and stavUhrK <> 'stavUhr.uhrazeno') and sumDphZakl >= 1000");
+    }
+
+    @Test
+    public void rendersRangesSetsAndAlternatives() {
+        Filter<IssuedInvoice> issued = Filter.where(Evidence.ISSUED_INVOICE, "issued")
+                .between(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        Filter<IssuedInvoice> symbols = Filter.where(Evidence.ISSUED_INVOICE, "variableSymbol").in("1", "2");
+
+        assertThat(issued.or(Filter.not(symbols)).toPath())
+                .isEqualTo("((datVyst >= '2024-01-01' and datVyst <= '2024-01-31') or not (varSym in ('1','2')))");
+    }
+
+    @Test
+    public void escapesStringValues() {
+        assertThat(Filter.where(AddressBook.class, "name").like("O'Neil \\ Co").toString())
+                .isEqualTo("nazev like 'O\\'Neil \\\\ Co'");
+        assertThat(Filter.where(AddressBook.class, "code").beginsWith("A").toString()).isEqualTo("kod begins 'A'");
+        assertThat(Filter.where(AddressBook.class, "code").isNull().toString()).isEqualTo("kod is null");
+    }
+
+    @Test
+    public void rejectsValuesOfWrongType() {
+        try {
+            Filter.where(Evidence.ISSUED_INVOICE, "dueDate").eq("2024-05-01");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("datSplat");
+        }
+    }
+
+    @Test
+    public void listsAndCountsOnServer() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        FlexibeeClientRegistry registry = FlexibeeClientRegistry.create();
+        try {
+            FlexibeeClient client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+            Filter<AddressBook> filter = Filter.where(Evidence.ADDRESS_BOOK, "code").eq("A B");
+            server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\"><adresar><kod>A B</kod></adresar></winstrom>"));
+            server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\" rowCount=\"42\"><adresar><id>1</id></adresar></winstrom>"));
+
+            List<AddressBook> records = new ArrayList<>();
+            try (PagedIterator<AddressBook> iterator = client.list(Evidence.ADDRESS_BOOK, filter)) {
+                iterator.forEachRemaining(records::add);
+            }
+            long count = client.count(Evidence.ADDRESS_BOOK, filter);
+
+            assertThat(records).extracting(AddressBook::getCode).containsExactly("A B");
+            assertThat(count).isEqualTo(42);
+            assertThat(server.takeRequest().getRequestUrl().encodedPath()).isEqualTo("/c/winstrom/adresar/(kod%20=%20'A%20B').xml");
+            HttpUrl countUrl = server.takeRequest().getRequestUrl();
+            assertThat(countUrl.encodedPath()).isEqualTo("/c/winstrom/adresar/(kod%20=%20'A%20B').xml");
+            assertThat(countUrl.queryParameter("add-row-count")).isEqualTo("true");
+            assertThat(countUrl.queryParameter("limit")).isEqualTo("1");
+        } finally {
+            registry.close();
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceResponse;
+import com.adleritech.flexibee.core.api.domain.Stats;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FlexibeeAsyncClientTest {
+    private final FlexibeeClient.Api api = mock(FlexibeeClient.Api.class);
+    private final Converter<ResponseBody, WinstromResponse> errorConverter = new WinstromResponseConverter();
+
+    private final FlexibeeClient flexibeeClient = new FlexibeeClient("winstrom", api, errorConverter);
+
+    @Test
+    public void successfulResponse() throws Exception {
+        Call<IssuedInvoiceResponse> call = mock(Call.class);
+        when(api.getIssuedInvoice("winstrom", "1")).thenReturn(call);
+        IssuedInvoiceResponse body = IssuedInvoiceResponse.builder().issuedInvoice(IssuedInvoice.builder().variableSymbol("42").build()).build();
+        respond(call, Response.success(body));
+
+        IssuedInvoiceResponse response = flexibeeClient.async().getIssuedInvoice("1").get();
+
+        assertThat(response.getIssuedInvoice().getVariableSymbol()).isEqualTo("42");
+    }
+
+    @Test
+    public void notFoundResponse() throws Exception {
+        Call<IssuedInvoiceResponse> call = mock(Call.class);
+        when(api.getIssuedInvoice("winstrom", "1")).thenReturn(call);
+        respond(call, Response.error(404, ResponseBody.create(MediaType.parse("plain/text"), "NotFound")));
+
+        try {
+            flexibeeClient.async().getIssuedInvoice("1").get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(FlexibeeClient.NotFound.class);
+        }
+    }
+
+    @Test
+    public void errorResponseKeepsRequest() throws Exception {
+        Call<WinstromResponse> call = mock(Call.class);
+        WinstromRequest request = WinstromRequest.builder().issuedInvoice(IssuedInvoice.builder().build()).build();
+        when(api.issueInvoice("winstrom", request)).thenReturn(call);
+        String xml = "<winstrom version=\"1.0\"><success>false</success><stats><created>0</created><updated>0</updated>" +
+                "<deleted>0</deleted><skipped>0</skipped><failed>1</failed></stats></winstrom>";
+        respond(call, Response.error(400, ResponseBody.create(MediaType.parse("application/xml"), xml)));
+
+        try {
+            flexibeeClient.async().createInvoice(request).get();
+            fail();
+        } catch (ExecutionException e) {
+            FlexibeeClient.FlexibeeException fe = (FlexibeeClient.FlexibeeException) e.getCause();
+            assertThat(fe.getStatusCode()).isEqualTo(400);
+            assertThat(fe.getRequest()).isSameAs(request);
+            assertThat(fe.getErrorResponse().getStats()).isEqualTo(new Stats(0, 0, 0, 0, 1));
+            assertThat(fe.getRawErrorResponse()).isEqualTo(xml);
+        }
+    }
+
+    @Test
+    public void transportFailure() throws Exception {
+        Call<IssuedInvoiceResponse> call = mock(Call.class);
+        when(api.getIssuedInvoice("winstrom", "1")).thenReturn(call);
+        doAnswer(invocation -> {
+            ((Callback<IssuedInvoiceResponse>) invocation.getArguments()[0]).onFailure(call, new IOException("reset"));
+            return null;
+        }).when(call).enqueue(any());
+
+        try {
+            flexibeeClient.async().getIssuedInvoice("1").get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IOException.class).hasMessage("reset");
+        }
+    }
+
+    @Test
+    public void listPageTransportFailure() throws Exception {
+        Call<ResponseBody> call = mock(Call.class);
+        when(api.list("winstrom", "faktura-vydana", 0, 10, "full", "id@A")).thenReturn(call);
+        doAnswer(invocation -> {
+            ((Callback<ResponseBody>) invocation.getArguments()[0]).onFailure(call, new IOException("reset"));
+            return null;
+        }).when(call).enqueue(any());
+
+        try {
+            flexibeeClient.async().listPage(Evidence.ISSUED_INVOICE, 0, 10).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IOException.class).hasMessage("reset");
+        }
+    }
+
+    @Test
+    public void listPageUnreadableBody() throws Exception {
+        Call<ResponseBody> call = mock(Call.class);
+        when(api.list("winstrom", "faktura-vydana", 0, 10, "full", "id@A")).thenReturn(call);
+        respond(call, Response.success(ResponseBody.create(MediaType.parse("application/xml"), "<winstrom><faktura-vydana>")));
+
+        try {
+            flexibeeClient.async().listPage(Evidence.ISSUED_INVOICE, 0, 10).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    public void cancelCancelsCall() {
+        Call<IssuedInvoiceResponse> call = mock(Call.class);
+        when(api.getIssuedInvoice("winstrom", "1")).thenReturn(call);
+
+        CompletableFuture<IssuedInvoiceResponse> future = flexibeeClient.async().getIssuedInvoice("1");
+        future.cancel(true);
+
+        verify(call).cancel();
+    }
+
+    private static <T> void respond(Call<T> call, Response<T> response) {
+        doAnswer(invocation -> {
+            ((Callback<T>) invocation.getArguments()[0]).onResponse(call, response);
+            return null;
+        }).when(call).enqueue(any());
+    }
+}
@@ -0,0 +1,41 @@
+package com.adleritech.flexibee.core.api;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlexibeeClientRegistryTest {
+
+    private final FlexibeeClientRegistry registry = FlexibeeClientRegistry.create();
+
+    @After
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    public void companiesWithSameCredentialsShareRetrofitService() {
+        FlexibeeClient first = registry.client("winstrom", "winstrom", "company_a", "https://demo.flexibee.eu");
+        FlexibeeClient second = registry.client("winstrom", "winstrom", "company_b", "https://demo.flexibee.eu");
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getClient()).isSameAs(second.getClient());
+    }
+
+    @Test
+    public void differentCredentialsGetOwnService() {
+        FlexibeeClient first = registry.client("winstrom", "winstrom", "company_a", "https://demo.flexibee.eu");
+        FlexibeeClient second = registry.client("other", "secret", "company_a", "https://demo.flexibee.eu");
+
+        assertThat(first.getClient()).isNotSameAs(second.getClient());
+    }
+
+    @Test
+    public void differentBaseUrlsGetOwnService() {
+        FlexibeeClient first = registry.client("winstrom", "winstrom", "company_a", "https://demo.flexibee.eu");
+        FlexibeeClient second = registry.client("winstrom", "winstrom", "company_a", "https://other.flexibee.eu");
+
+        assertThat(first.getClient()).isNotSameAs(second.getClient());
+    }
+}
@@ -0,0 +1,117 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceResponse;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GovernorTest {
+    private static final String INVOICE = "<winstrom version=\"1.0\"><faktura-vydana><varSym>1</varSym></faktura-vydana></winstrom>";
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final InMemoryFlexibeeMetrics metrics = new InMemoryFlexibeeMetrics();
+
+    private FlexibeeClientRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        registry = FlexibeeClientRegistry.builder()
+                .metrics(metrics)
+                .companyLimit("winstrom", RateLimit.builder().maxInFlight(1).build())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void asyncCallsOfOneCompanyQueue() throws Exception {
+        FlexibeeClient client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setBody(INVOICE).setBodyDelay(50, TimeUnit.MILLISECONDS));
+        }
+
+        List<CompletableFuture<IssuedInvoiceResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            responses.add(client.async().getIssuedInvoice(String.valueOf(i)));
+        }
+        for (CompletableFuture<IssuedInvoiceResponse> response : responses) {
+            assertThat(response.get(5, TimeUnit.SECONDS).getIssuedInvoice().getVariableSymbol()).isEqualTo("1");
+        }
+
+        LatencyHistogram permitWait = metrics.getEndpoint("getIssuedInvoice").getHistogram(InMemoryFlexibeeMetrics.Phase.PERMIT_WAIT);
+        assertThat(permitWait.getCount()).isEqualTo(3);
+        assertThat(permitWait.getMaxMicros()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toMicros(80));
+    }
+
+    @Test
+    public void otherCompaniesAreNotLimited() throws Exception {
+        FlexibeeClient limited = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+        FlexibeeClient other = registry.client("winstrom", "winstrom", "other", server.url("/").toString());
+        server.enqueue(new MockResponse().setBody(INVOICE).setBodyDelay(2, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse().setBody(INVOICE));
+
+        CompletableFuture<IssuedInvoiceResponse> slow = limited.async().getIssuedInvoice("1");
+        server.takeRequest();
+        assertThat(other.getIssuedInvoice("1").getIssuedInvoice()).isNotNull();
+        assertThat(slow).isNotDone();
+        slow.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void cancelledWaitingCallReleasesItsPlace() throws Exception {
+        FlexibeeClient client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+        server.enqueue(new MockResponse().setBody(INVOICE).setBodyDelay(200, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setBody(INVOICE));
+
+        CompletableFuture<IssuedInvoiceResponse> first = client.async().getIssuedInvoice("1");
+        client.async().getIssuedInvoice("2").cancel(true);
+        CompletableFuture<IssuedInvoiceResponse> third = client.async().getIssuedInvoice("3");
+
+        first.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void retriesTakeTokens() throws Exception {
+        try (FlexibeeClientRegistry limited = FlexibeeClientRegistry.builder()
+                .globalLimit(RateLimit.builder().permitsPerSecond(2).burst(1).build())
+                .retryPolicy(RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).build())
+                .build()) {
+            FlexibeeClient client = limited.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+            server.enqueue(new MockResponse().setResponseCode(503));
+            server.enqueue(new MockResponse().setBody(INVOICE));
+
+            long start = System.nanoTime();
+            client.getIssuedInvoice("1");
+
+            assertThat(server.getRequestCount()).isEqualTo(2);
+            // the first attempt took the only token, the retry waits for the next one
+            assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(400));
+        }
+    }
+
+    @Test
+    public void companyIsReadFromPath() {
+        assertThat(Governor.company(HttpUrl.parse("https://demo.flexibee.eu/c/winstrom/faktura-vydana/1.xml"))).isEqualTo("winstrom");
+        assertThat(Governor.company(HttpUrl.parse("https://demo.flexibee.eu/status.xml"))).isNull();
+    }
+}
@@ -0,0 +1,93 @@
+package com.adleritech.flexibee.core.api;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Okio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GzipRequestInterceptorTest {
+    private static final String INVOICE = "<winstrom version=\"1.0\"><faktura-vydana><varSym>1</varSym></faktura-vydana></winstrom>";
+
+    private static final String CREATED = "<winstrom version=\"1.0\"><success>true</success>"
+            + "<stats><created>1</created><updated>0</updated><deleted>0</deleted><skipped>0</skipped><failed>0</failed></stats></winstrom>";
+
+    private final MockWebServer server = new MockWebServer();
+
+    private FlexibeeClientRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void bodyAboveThresholdIsSentGzipped() throws Exception {
+        FlexibeeClient client = client(16);
+        server.enqueue(new MockResponse().setBody(CREATED));
+
+        client.createInvoice(invoice());
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(request.getHeader("Content-Length")).isEqualTo(String.valueOf(request.getBodySize()));
+        Buffer decompressed = new Buffer();
+        decompressed.writeAll(new GzipSource(request.getBody()));
+        assertThat(decompressed.readUtf8()).contains("<faktura-vydana>");
+    }
+
+    @Test
+    public void bodyBelowThresholdIsSentPlain() throws Exception {
+        FlexibeeClient client = client(1024 * 1024);
+        server.enqueue(new MockResponse().setBody(CREATED));
+
+        client.createInvoice(invoice());
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getHeader("Content-Encoding")).isNull();
+        assertThat(request.getBody().readUtf8()).contains("<faktura-vydana>");
+    }
+
+    @Test
+    public void gzippedResponseIsDecompressed() throws Exception {
+        FlexibeeClient client = client(16);
+        Buffer compressed = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(compressed))) {
+            sink.writeUtf8(INVOICE);
+        }
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(compressed));
+
+        assertThat(client.getIssuedInvoice("1").getIssuedInvoice().getVariableSymbol()).isEqualTo("1");
+        assertThat(server.takeRequest().getHeader("Accept-Encoding")).isEqualTo("gzip");
+    }
+
+    private FlexibeeClient client(int gzipMinBytes) {
+        registry = FlexibeeClientRegistry.builder().gzipMinBytes(gzipMinBytes).build();
+        return registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+    }
+
+    private static WinstromRequest invoice() {
+        return WinstromRequest.builder()
+                .issuedInvoice(IssuedInvoice.builder().id(Collections.singletonList("ext:1")).build())
+                .build();
+    }
+}
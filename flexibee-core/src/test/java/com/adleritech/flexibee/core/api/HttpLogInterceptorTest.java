@@ -0,0 +1,120 @@
+package com.adleritech.flexibee.core.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.slf4j.helpers.MessageFormatter;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class HttpLogInterceptorTest {
+    private static final MediaType XML = MediaType.parse("application/xml; charset=utf-8");
+
+    private final List<String> lines = new ArrayList<>();
+
+    private boolean debugEnabled;
+
+    private final Logger logger = mock(Logger.class, (Answer<Object>) this::log);
+
+    @Test
+    public void doesNothingWhenDebugIsDisabled() throws Exception {
+        execute(HttpLogLevel.BODY, 16, body(XML, "<winstrom/>"));
+
+        verify(logger).isDebugEnabled();
+        verifyNoMoreInteractions(logger);
+    }
+
+    @Test
+    public void logsCappedTextBodiesAndRedactsAuthorization() throws Exception {
+        recordDebug();
+
+        String responseBody = execute(HttpLogLevel.BODY, 16, body(XML, "<winstrom version=\"1.0\"></winstrom>"));
+
+        assertThat(responseBody).isEqualTo("<winstrom version=\"1.0\"></winstrom>");
+        assertThat(lines).contains("Authorization: <redacted>");
+        assertThat(lines).contains("<winstrom><adres... (31-byte body truncated to 16 bytes)");
+        assertThat(lines).contains("<winstrom versio... (body truncated to 16 bytes)");
+    }
+
+    @Test
+    public void neverReadsBinaryBodies() throws Exception {
+        recordDebug();
+        ResponseBody body = ResponseBody.create(MediaType.parse("application/pdf"), new byte[100_000]);
+
+        execute(HttpLogLevel.BODY, 16, body);
+
+        assertThat(lines.get(lines.size() - 1)).isEqualTo("(binary 100000-byte response body omitted)");
+    }
+
+    @Test
+    public void basicLevelLogsOnlyRequestAndResponseLines() throws Exception {
+        recordDebug();
+
+        execute(HttpLogLevel.BASIC, 16, body(XML, "<winstrom/>"));
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("--> PUT http://localhost/c/winstrom/adresar.xml");
+        assertThat(lines.get(1)).startsWith("<-- 200 OK http://localhost/c/winstrom/adresar.xml");
+    }
+
+    private static ResponseBody body(MediaType mediaType, String content) {
+        return ResponseBody.create(mediaType, content);
+    }
+
+    private void recordDebug() {
+        debugEnabled = true;
+    }
+
+    private Object log(InvocationOnMock invocation) {
+        if (invocation.getMethod().getName().equals("isDebugEnabled")) {
+            return debugEnabled;
+        }
+        if (!invocation.getMethod().getName().equals("debug")) {
+            return null;
+        }
+        Object[] arguments = invocation.getArguments();
+        Object[] parameters = new Object[arguments.length - 1];
+        System.arraycopy(arguments, 1, parameters, 0, parameters.length);
+        if (parameters.length == 1 && parameters[0] instanceof Object[]) {
+            parameters = (Object[]) parameters[0];
+        }
+        lines.add(MessageFormatter.arrayFormat((String) arguments[0], parameters).getMessage());
+        return null;
+    }
+
+    private String execute(HttpLogLevel level, int maxBodyBytes, ResponseBody responseBody) throws Exception {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new HttpLogInterceptor(logger, level, maxBodyBytes))
+                .addInterceptor(chain -> new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(200)
+                        .message("OK")
+                        .body(responseBody)
+                        .build())
+                .build();
+        Request request = new Request.Builder()
+                .url("http://localhost/c/winstrom/adresar.xml")
+                .header("Authorization", "Basic c2VjcmV0")
+                .put(RequestBody.create(XML, "<winstrom><adresar/></winstrom>"))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().string();
+        }
+    }
+}
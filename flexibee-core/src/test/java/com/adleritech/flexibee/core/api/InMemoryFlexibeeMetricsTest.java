@@ -0,0 +1,114 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.InMemoryFlexibeeMetrics.EndpointMetrics;
+import com.adleritech.flexibee.core.api.InMemoryFlexibeeMetrics.Phase;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class InMemoryFlexibeeMetricsTest {
+    private final MockWebServer server = new MockWebServer();
+
+    private final InMemoryFlexibeeMetrics metrics = new InMemoryFlexibeeMetrics();
+
+    private FlexibeeClientRegistry registry;
+
+    private FlexibeeClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        registry = FlexibeeClientRegistry.builder().metrics(metrics).build();
+        client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void recordsCallsPerApiMethod() throws Exception {
+        server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\"><faktura-vydana><varSym>1</varSym></faktura-vydana></winstrom>"));
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("<winstrom version=\"1.0\"><success>false</success></winstrom>"));
+
+        assertThat(client.getIssuedInvoice("1").getIssuedInvoice().getVariableSymbol()).isEqualTo("1");
+        try {
+            client.getIssuedInvoice("2");
+            fail();
+        } catch (FlexibeeClient.NotFound expected) {
+        }
+
+        EndpointMetrics endpoint = metrics.getEndpoint("getIssuedInvoice");
+        assertThat(endpoint.getCalls()).isEqualTo(2);
+        assertThat(endpoint.getStatusClasses()).containsEntry("2xx", 1L).containsEntry("4xx", 1L);
+        assertThat(endpoint.getBytesReceived()).isGreaterThan(0);
+        assertThat(endpoint.getHistogram(Phase.TOTAL).getCount()).isEqualTo(2);
+        assertThat(endpoint.getHistogram(Phase.CONNECT).getCount()).isEqualTo(1);
+        assertThat(endpoint.getHistogram(Phase.DECODE).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordsBytesSent() throws Exception {
+        server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\"><success>true</success>"
+                + "<stats><created>1</created><updated>0</updated><deleted>0</deleted><skipped>0</skipped><failed>0</failed></stats></winstrom>"));
+
+        client.createInvoice(WinstromRequest.builder().build());
+
+        assertThat(metrics.getEndpoint("issueInvoice").getBytesSent()).isGreaterThan(0);
+        assertThat(metrics.getEndpoint("issueInvoice").getStatusClasses()).containsOnlyKeys("2xx");
+    }
+
+    @Test
+    public void failedCallsHaveNoStatus() throws Exception {
+        server.shutdown();
+
+        try {
+            client.getIssuedInvoice("1");
+            fail();
+        } catch (IOException expected) {
+        }
+
+        assertThat(metrics.getEndpoint("getIssuedInvoice").getStatusClasses()).containsOnlyKeys("failed");
+    }
+
+    @Test
+    public void bodyReadElsewhereIsNotHandedToConverter() throws Exception {
+        Call call = new OkHttpClient().newCall(new Request.Builder().url(server.url("/")).build());
+        MetricsEventListener listener = new MetricsEventListener(metrics, call);
+
+        listener.responseBodyStart(call);
+        Thread reader = new Thread(() -> listener.responseBodyEnd(call, 10));
+        reader.start();
+        reader.join();
+
+        assertThat(MetricsEventListener.decodeStarted()).isNull();
+    }
+
+    @Test
+    public void histogramPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordNanos(i * 1000L);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getPercentileMicros(50)).isBetween(500L, 532L);
+        assertThat(histogram.getPercentileMicros(99)).isBetween(990L, 1000L);
+        assertThat(histogram.getPercentileMicros(100)).isEqualTo(1000);
+        assertThat(histogram.getMeanMicros()).isEqualTo(500.5);
+    }
+}
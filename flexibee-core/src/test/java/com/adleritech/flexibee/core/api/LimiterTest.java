@@ -0,0 +1,91 @@
+package com.adleritech.flexibee.core.api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class LimiterTest {
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void inFlightLimitGrantsInOrder() {
+        Limiter limiter = new Limiter(RateLimit.builder().maxInFlight(1).build(), scheduler, clock::get);
+
+        CompletableFuture<Void> first = limiter.acquire();
+        CompletableFuture<Void> second = limiter.acquire();
+        CompletableFuture<Void> third = limiter.acquire();
+        assertThat(first).isDone();
+        assertThat(second).isNotDone();
+
+        limiter.release();
+        assertThat(second).isDone();
+        assertThat(third).isNotDone();
+    }
+
+    @Test
+    public void cancelledWaiterIsSkipped() {
+        Limiter limiter = new Limiter(RateLimit.builder().maxInFlight(1).build(), scheduler, clock::get);
+
+        limiter.acquire();
+        CompletableFuture<Void> cancelled = limiter.acquire();
+        CompletableFuture<Void> waiting = limiter.acquire();
+        cancelled.cancel(false);
+
+        limiter.release();
+        assertThat(waiting).isDone();
+        assertThat(limiter.waiting()).isZero();
+    }
+
+    @Test
+    public void tokensRefillOverTime() {
+        Limiter limiter = new Limiter(RateLimit.builder().permitsPerSecond(2).build(), scheduler, clock::get);
+
+        assertThat(limiter.acquire()).isDone();
+        assertThat(limiter.acquire()).isDone();
+        CompletableFuture<Void> third = limiter.acquire();
+        assertThat(third).isNotDone();
+
+        ArgumentCaptor<Runnable> wakeUp = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(wakeUp.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        wakeUp.getValue().run();
+        assertThat(third).isDone();
+    }
+
+    @Test
+    public void retryTokenSkipsInFlightLimitAndWaitingPermits() {
+        Limiter limiter = new Limiter(RateLimit.builder().permitsPerSecond(2).maxInFlight(1).build(), scheduler, clock::get);
+
+        assertThat(limiter.acquire()).isDone();
+        CompletableFuture<Void> waiting = limiter.acquire();
+        assertThat(limiter.acquireToken()).isDone();
+        CompletableFuture<Void> retry = limiter.acquireToken();
+        assertThat(retry).isNotDone();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        limiter.release();
+        assertThat(retry).isDone();
+        assertThat(waiting).isNotDone();
+    }
+
+    @Test
+    public void unlimitedNeverWaits() {
+        Limiter limiter = new Limiter(RateLimit.builder().build(), scheduler, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.acquire()).isDone();
+        }
+    }
+}
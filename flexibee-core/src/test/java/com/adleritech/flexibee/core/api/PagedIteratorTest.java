@@ -0,0 +1,132 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PagedIteratorTest {
+    private final FlexibeeClient.Api api = mock(FlexibeeClient.Api.class);
+    private final Converter<ResponseBody, WinstromResponse> errorConverter = new WinstromResponseConverter();
+
+    private final FlexibeeClient flexibeeClient = new FlexibeeClient("winstrom", api, errorConverter);
+
+    @Test
+    public void pagesThroughEvidence() {
+        page(0, "1", "2");
+        page(2, "3", "4");
+        page(4, "5");
+
+        List<String> ids = flexibeeClient.list(Evidence.ISSUED_INVOICE, 2).stream()
+                .map(invoice -> invoice.getId().get(0))
+                .collect(Collectors.toList());
+
+        assertThat(ids).containsExactly("1", "2", "3", "4", "5");
+        verify(api, never()).list(anyString(), anyString(), eq(6), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    public void prefetchesNextPage() {
+        page(0, "1", "2");
+        page(2, "3");
+
+        PagedIterator<IssuedInvoice> iterator = flexibeeClient.list(Evidence.ISSUED_INVOICE, 2);
+        iterator.next();
+
+        verify(api).list("winstrom", "faktura-vydana", 2, 2, "full", "id@A");
+    }
+
+    @Test
+    public void closeCancelsPrefetchAndReleasesItsBody() throws Exception {
+        page(0, "1", "2");
+        Call<ResponseBody> prefetch = mock(Call.class);
+        when(api.list("winstrom", "faktura-vydana", 2, 2, "full", "id@A")).thenReturn(prefetch);
+        AtomicReference<Callback<ResponseBody>> callback = new AtomicReference<>();
+        doAnswer(invocation -> {
+            callback.set((Callback<ResponseBody>) invocation.getArguments()[0]);
+            return null;
+        }).when(prefetch).enqueue(any());
+
+        PagedIterator<IssuedInvoice> iterator = flexibeeClient.list(Evidence.ISSUED_INVOICE, 2);
+        iterator.next();
+        iterator.close();
+
+        verify(prefetch).cancel();
+
+        AtomicBoolean closed = new AtomicBoolean();
+        Buffer xml = new Buffer().writeUtf8("<winstrom version=\"1.0\"></winstrom>");
+        BufferedSource source = Okio.buffer(new ForwardingSource(xml) {
+            @Override
+            public void close() throws IOException {
+                closed.set(true);
+                super.close();
+            }
+        });
+        callback.get().onResponse(prefetch, Response.success(ResponseBody.create(MediaType.parse("application/xml"), xml.size(), source)));
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    public void emptyEvidence() {
+        page(0);
+
+        assertThat(flexibeeClient.list(Evidence.ISSUED_INVOICE, 2).hasNext()).isFalse();
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void failedPage() {
+        page(0, "1", "2");
+        Call<ResponseBody> call = mock(Call.class);
+        when(api.list("winstrom", "faktura-vydana", 2, 2, "full", "id@A")).thenReturn(call);
+        doAnswer(invocation -> {
+            ((Callback<ResponseBody>) invocation.getArguments()[0]).onFailure(call, new IOException("reset"));
+            return null;
+        }).when(call).enqueue(any());
+
+        flexibeeClient.list(Evidence.ISSUED_INVOICE, 2).forEachRemaining(invoice -> { });
+    }
+
+    private void page(int start, String... ids) {
+        StringBuilder xml = new StringBuilder("<winstrom version=\"1.0\">");
+        for (String id : ids) {
+            xml.append("<faktura-vydana><id>").append(id).append("</id><varSym>").append(id).append("</varSym></faktura-vydana>");
+        }
+        xml.append("</winstrom>");
+        Call<ResponseBody> call = mock(Call.class);
+        when(api.list("winstrom", "faktura-vydana", start, 2, "full", "id@A")).thenReturn(call);
+        doAnswer(invocation -> {
+            ((Callback<ResponseBody>) invocation.getArguments()[0])
+                    .onResponse(call, Response.success(ResponseBody.create(MediaType.parse("application/xml"), xml.toString())));
+            return null;
+        }).when(call).enqueue(any());
+    }
+}
@@ -0,0 +1,122 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class PdfDownloadTest {
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final byte[] pdf = new byte[300 * 1024];
+
+    private FlexibeeClientRegistry registry;
+
+    private FlexibeeClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        new Random(1).nextBytes(pdf);
+        server.start();
+        registry = FlexibeeClientRegistry.create();
+        client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void streamsToFile() throws Exception {
+        server.enqueue(pdfResponse());
+        Path target = Files.createTempFile("invoice", ".pdf");
+        try {
+            DownloadResult result = client.downloadIssuedInvoicePdf("1", target);
+
+            assertThat(result.getBytes()).isEqualTo(pdf.length);
+            assertThat(result.getDuration()).isGreaterThan(Duration.ZERO);
+            assertThat(Files.readAllBytes(target)).isEqualTo(pdf);
+            assertThat(server.takeRequest().getPath()).isEqualTo("/c/winstrom/faktura-vydana/1.pdf");
+        } finally {
+            Files.delete(target);
+        }
+    }
+
+    @Test
+    public void streamsToChannel() throws Exception {
+        server.enqueue(pdfResponse());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        DownloadResult result = client.downloadIssuedInvoicePdf("1", Channels.newChannel(out));
+
+        assertThat(result.getBytes()).isEqualTo(pdf.length);
+        assertThat(out.toByteArray()).isEqualTo(pdf);
+    }
+
+    @Test
+    public void streamsToOutputStream() throws Exception {
+        server.enqueue(pdfResponse());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        DownloadResult result = client.downloadIssuedInvoicePdf("1", out);
+
+        assertThat(result.getBytes()).isEqualTo(pdf.length);
+        assertThat(out.toByteArray()).isEqualTo(pdf);
+    }
+
+    @Test
+    public void missingInvoiceFailsWithoutWriting() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("<winstrom version=\"1.0\"><success>false</success></winstrom>"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            client.downloadIssuedInvoicePdf("1", out);
+            fail();
+        } catch (FlexibeeClient.NotFound expected) {
+        }
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    public void missingInvoiceKeepsFileContent() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("<winstrom version=\"1.0\"><success>false</success></winstrom>"));
+        Path directory = Files.createTempDirectory("invoices");
+        Path target = directory.resolve("invoice.pdf");
+        Files.write(target, pdf);
+        try {
+            try {
+                client.downloadIssuedInvoicePdf("1", target);
+                fail();
+            } catch (FlexibeeClient.NotFound expected) {
+            }
+            assertThat(Files.readAllBytes(target)).isEqualTo(pdf);
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files).containsExactly(target);
+            }
+        } finally {
+            Files.delete(target);
+            Files.delete(directory);
+        }
+    }
+
+    private MockResponse pdfResponse() {
+        return new MockResponse().setHeader("Content-Type", "application/pdf").setBody(new Buffer().write(pdf));
+    }
+}
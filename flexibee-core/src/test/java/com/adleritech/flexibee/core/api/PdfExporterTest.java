@@ -0,0 +1,154 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PdfExporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+    private final List<String> requested = Collections.synchronizedList(new ArrayList<>());
+
+    private FlexibeeClientRegistry registry;
+
+    private FlexibeeClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String id = request.getPath().replaceAll(".*/([^/]+)\\.pdf$", "$1");
+                requested.add(id);
+                if (failing.contains(id)) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse().setBody(new Buffer().writeUtf8("%PDF " + id));
+            }
+        });
+        server.start();
+        registry = FlexibeeClientRegistry.create();
+        client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void writesPdfsIntoRotatingParts() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        PdfExporter exporter = PdfExporter.builder().parallelism(3).entriesPerPart(2).build();
+
+        PdfExportResult result = exporter.export(client, Arrays.asList("1", "2", "3", "4", "5").iterator(), directory);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getExported()).isEqualTo(5);
+        assertThat(result.getParts()).extracting(part -> part.getFileName().toString())
+                .containsExactly("part-00001.zip", "part-00002.zip", "part-00003.zip");
+        assertThat(entries(result.getParts())).containsExactlyInAnyOrder("1.pdf", "2.pdf", "3.pdf", "4.pdf", "5.pdf");
+        try (ZipFile zip = new ZipFile(result.getParts().get(2).toFile())) {
+            ZipEntry entry = zip.entries().nextElement();
+            byte[] content = new byte[(int) entry.getSize()];
+            new DataInputStream(zip.getInputStream(entry)).readFully(content);
+            assertThat(new String(content, StandardCharsets.UTF_8)).startsWith("%PDF ");
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".tmp"))).isEmpty();
+        }
+    }
+
+    @Test
+    public void resumesFromCheckpoint() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        PdfExporter exporter = PdfExporter.builder().parallelism(2).entriesPerPart(10).build();
+        List<String> ids = Arrays.asList("1", "2", "3", "4");
+        failing.add("3");
+
+        PdfExportResult first = exporter.export(client, ids.iterator(), directory);
+
+        assertThat(first.getExported()).isEqualTo(3);
+        assertThat(first.getFailures()).extracting(PdfExportResult.InvoiceFailure::getId).containsExactly("3");
+
+        failing.clear();
+        requested.clear();
+        PdfExportResult second = exporter.export(client, ids.iterator(), directory);
+
+        assertThat(requested).containsExactly("3");
+        assertThat(second.getExported()).isEqualTo(1);
+        assertThat(second.getSkipped()).isEqualTo(3);
+        assertThat(second.getParts()).extracting(part -> part.getFileName().toString()).containsExactly("part-00002.zip");
+        assertThat(entries(Arrays.asList(first.getParts().get(0), second.getParts().get(0))))
+                .containsExactlyInAnyOrder("1.pdf", "2.pdf", "3.pdf", "4.pdf");
+    }
+
+    @Test
+    public void entryNamesAreSafeFileNames() {
+        assertThat(PdfExporter.entryName("ext:SHOP/42")).isEqualTo("ext%3ASHOP%2F42.pdf");
+        assertThat(PdfExporter.entryName("50%")).isEqualTo("50%25.pdf");
+        assertThat(PdfExporter.entryName("č")).isEqualTo("%C4%8D.pdf");
+    }
+
+    @Test
+    public void similarIdsDoNotCollide() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        PdfExporter exporter = PdfExporter.builder().parallelism(2).entriesPerPart(10).build();
+
+        PdfExportResult result = exporter.export(client, Arrays.asList("code:A", "code_A").iterator(), directory);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(entries(result.getParts())).containsExactlyInAnyOrder("code%3AA.pdf", "code_A.pdf");
+    }
+
+    @Test
+    public void deletesStaleDownloadsOnResume() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        Path stale = Files.createTempFile(directory, "invoice", ".pdf.tmp");
+
+        PdfExporter.builder().build().export(client, Collections.singletonList("1").iterator(), directory);
+
+        assertThat(stale).doesNotExist();
+    }
+
+    private static List<String> entries(List<Path> parts) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (Path part : parts) {
+            try (ZipFile zip = new ZipFile(part.toFile())) {
+                zip.stream().forEach(entry -> names.add(entry.getName()));
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,86 @@
+package com.adleritech.flexibee.core.api;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceResponse;
+import com.adleritech.flexibee.core.api.domain.PaymentStatus;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ProjectionTest {
+
+    @Test
+    public void propertiesAreTranslatedToElementNames() {
+        Projection<IssuedInvoice> projection = Projection.of(Evidence.ISSUED_INVOICE, "paymentStatus", "remainingToPay", "id");
+
+        assertThat(projection.getElements()).containsExactly("id", "stavUhrK", "zbyvaUhradit");
+        assertThat(projection.getDetail()).isEqualTo("custom:id,stavUhrK,zbyvaUhradit");
+    }
+
+    @Test
+    public void unknownPropertyIsRejected() {
+        try {
+            Projection.of(IssuedInvoice.class, "paymentState");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("IssuedInvoice.paymentState");
+        }
+    }
+
+    @Test
+    public void projectionIsSentAsCustomDetail() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        FlexibeeClientRegistry registry = FlexibeeClientRegistry.create();
+        try {
+            FlexibeeClient client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+            Projection<IssuedInvoice> projection = Projection.of(Evidence.ISSUED_INVOICE, "paymentStatus", "remainingToPay");
+            server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\"><faktura-vydana><id>1</id>"
+                    + "<stavUhrK>stavUhr.uhrazenoRucne</stavUhrK><zbyvaUhradit>0.0</zbyvaUhradit></faktura-vydana></winstrom>"));
+            server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\"><faktura-vydana><id>1</id></faktura-vydana></winstrom>"));
+
+            IssuedInvoice invoice = client.getIssuedInvoice("1", projection).getIssuedInvoice();
+            List<IssuedInvoice> listed = new ArrayList<>();
+            try (PagedIterator<IssuedInvoice> iterator = client.list(Evidence.ISSUED_INVOICE, projection, 10)) {
+                iterator.forEachRemaining(listed::add);
+            }
+
+            assertThat(invoice.getPaymentStatus()).isEqualTo(PaymentStatus.MANUALLY);
+            assertThat(invoice.getRemainingToPay()).isEqualByComparingTo(BigDecimal.ZERO);
+            assertThat(invoice.getCompany()).isNull();
+            assertThat(listed).hasSize(1);
+            assertThat(server.takeRequest().getRequestUrl().queryParameter("detail")).isEqualTo("custom:id,stavUhrK,zbyvaUhradit");
+            assertThat(server.takeRequest().getRequestUrl().queryParameter("detail")).isEqualTo("custom:id,stavUhrK,zbyvaUhradit");
+        } finally {
+            registry.close();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void wholeRecordWithoutProjection() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        FlexibeeClientRegistry registry = FlexibeeClientRegistry.create();
+        try {
+            FlexibeeClient client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+            server.enqueue(new MockResponse().setBody("<winstrom version=\"1.0\"><faktura-vydana><id>1</id></faktura-vydana></winstrom>"));
+
+            IssuedInvoiceResponse response = client.getIssuedInvoice("1");
+
+            assertThat(response.getIssuedInvoice()).isNotNull();
+            assertThat(server.takeRequest().getRequestUrl().queryParameter("detail")).isNull();
+        } finally {
+            registry.close();
+            server.shutdown();
+        }
+    }
+}
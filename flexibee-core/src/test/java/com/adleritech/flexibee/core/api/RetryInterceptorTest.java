@@ -0,0 +1,158 @@
+package com.adleritech.flexibee.core.api;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceItem;
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceItems;
+import com.adleritech.flexibee.core.api.domain.WinstromRequest;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class RetryInterceptorTest {
+    private static final String INVOICE = "<winstrom version=\"1.0\"><faktura-vydana><varSym>1</varSym></faktura-vydana></winstrom>";
+
+    private static final String CREATED = "<winstrom version=\"1.0\"><success>true</success>"
+            + "<stats><created>1</created><updated>0</updated><deleted>0</deleted><skipped>0</skipped><failed>0</failed></stats></winstrom>";
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final InMemoryFlexibeeMetrics metrics = new InMemoryFlexibeeMetrics();
+
+    private FlexibeeClientRegistry registry;
+
+    private FlexibeeClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        registry = FlexibeeClientRegistry.builder()
+                .metrics(metrics)
+                .retryPolicy(RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).maxRetryAfter(Duration.ofSeconds(1)).build())
+                .build();
+        client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void getIsRetriedOnRetryableStatus() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502).setHeader("Retry-After", "0"));
+        server.enqueue(new MockResponse().setBody(INVOICE));
+
+        assertThat(client.getIssuedInvoice("1").getIssuedInvoice().getVariableSymbol()).isEqualTo("1");
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(metrics.getEndpoint("getIssuedInvoice").getRetries()).isEqualTo(2);
+        assertThat(metrics.getEndpoint("getIssuedInvoice").getCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void getIsRetriedOnConnectionFailure() throws Exception {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        server.enqueue(new MockResponse().setBody(INVOICE));
+
+        assertThat(client.getIssuedInvoice("1").getIssuedInvoice().getVariableSymbol()).isEqualTo("1");
+        assertThat(metrics.getEndpoint("getIssuedInvoice").getRetries()).isEqualTo(1);
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        server.enqueue(new MockResponse().setBody(INVOICE));
+
+        try {
+            client.getIssuedInvoice("1");
+            fail();
+        } catch (FlexibeeClient.FlexibeeException expected) {
+        }
+        assertThat(server.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void tooLongRetryAfterIsNotWaitedFor() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "120"));
+
+        try {
+            client.getIssuedInvoice("1");
+            fail();
+        } catch (FlexibeeClient.FlexibeeException expected) {
+        }
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void putWithExternalIdsIsRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(CREATED));
+
+        client.createInvoice(invoice(Helpers.externalId("INVOICE:1")));
+
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void putWithoutExternalIdsIsNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(CREATED));
+
+        try {
+            client.createInvoice(invoice("code:VF1"));
+            fail();
+        } catch (FlexibeeClient.FlexibeeException expected) {
+        }
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void putAppendingItemsIsNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(CREATED));
+
+        try {
+            client.createInvoice(invoice(Helpers.externalId("INVOICE:1"),
+                    new IssuedInvoiceItems(IssuedInvoiceItem.builder().name("Item").build())));
+            fail();
+        } catch (FlexibeeClient.FlexibeeException expected) {
+        }
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void putReplacingAllItemsIsRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(CREATED));
+
+        client.createInvoice(invoice(Helpers.externalId("INVOICE:1"),
+                new IssuedInvoiceItems(Collections.singletonList(IssuedInvoiceItem.builder().name("Item").build()), true)));
+
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    private static WinstromRequest invoice(String id, IssuedInvoiceItems items) {
+        return WinstromRequest.builder()
+                .issuedInvoice(IssuedInvoice.builder().id(Collections.singletonList(id)).items(items).build())
+                .build();
+    }
+
+    private static WinstromRequest invoice(String id) {
+        return WinstromRequest.builder()
+                .issuedInvoice(IssuedInvoice.builder().id(Collections.singletonList(id)).build())
+                .build();
+    }
+}
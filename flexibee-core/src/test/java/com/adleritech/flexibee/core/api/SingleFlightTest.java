@@ -0,0 +1,155 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoiceResponse;
+import com.adleritech.flexibee.core.api.domain.WinstromResponse;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallersShareOneCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "result";
+        }));
+        started.await();
+        Future<String> second = executor.submit(() -> singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return "other";
+        }));
+        awaitWaiter();
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    public void exceptionIsShared() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw new IOException("reset");
+        }));
+        started.await();
+        Future<Object> waiter = executor.submit(() -> singleFlight.execute("key", () -> "other"));
+        awaitWaiter();
+        release.countDown();
+
+        try {
+            waiter.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IOException.class).hasMessage("reset");
+        }
+    }
+
+    @Test
+    public void completedCallIsNotReused() throws Exception {
+        assertThat(singleFlight.execute("key", () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.execute("key", () -> "second")).isEqualTo("second");
+    }
+
+    @Test
+    public void clientCoalescesIdenticalGets() throws Exception {
+        FlexibeeClient.Api api = mock(FlexibeeClient.Api.class);
+        Converter<ResponseBody, WinstromResponse> errorConverter = new WinstromResponseConverter();
+        FlexibeeClient flexibeeClient = new FlexibeeClient("winstrom", api, errorConverter, singleFlight).withRequestCoalescing();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Call<IssuedInvoiceResponse> call = mock(Call.class);
+        when(api.getIssuedInvoice("winstrom", "1")).thenReturn(call);
+        when(call.execute()).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            return Response.success(new IssuedInvoiceResponse());
+        });
+
+        Future<IssuedInvoiceResponse> first = executor.submit(() -> flexibeeClient.getIssuedInvoice("1"));
+        started.await();
+        Future<IssuedInvoiceResponse> second = executor.submit(() -> flexibeeClient.getIssuedInvoice("1"));
+        awaitWaiter();
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void clientDoesNotCoalesceByDefault() throws Exception {
+        FlexibeeClient.Api api = mock(FlexibeeClient.Api.class);
+        FlexibeeClient flexibeeClient = new FlexibeeClient("winstrom", api, new WinstromResponseConverter(), singleFlight);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Call<IssuedInvoiceResponse> call = mock(Call.class);
+        when(api.getIssuedInvoice("winstrom", "1")).thenReturn(call);
+        when(call.execute()).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return Response.success(new IssuedInvoiceResponse());
+        });
+
+        Future<IssuedInvoiceResponse> first = executor.submit(() -> flexibeeClient.getIssuedInvoice("1"));
+        Future<IssuedInvoiceResponse> second = executor.submit(() -> flexibeeClient.getIssuedInvoice("1"));
+
+        assertThat(second.get(10, TimeUnit.SECONDS)).isNotSameAs(first.get(10, TimeUnit.SECONDS));
+        assertThat(bothStarted.getCount()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * There is no hook telling the second caller joined the flight, give it time to do so.
+     */
+    private static void awaitWaiter() throws InterruptedException {
+        Thread.sleep(100);
+    }
+}
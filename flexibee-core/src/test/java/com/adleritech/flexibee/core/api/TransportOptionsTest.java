@@ -0,0 +1,96 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class TransportOptionsTest {
+    private static final String INVOICE = "<winstrom version=\"1.0\"><faktura-vydana><varSym>1</varSym></faktura-vydana></winstrom>";
+
+    private final MockWebServer server = new MockWebServer();
+
+    private FlexibeeClientRegistry registry;
+
+    private FlexibeeClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+        registry = FlexibeeClientRegistry.builder()
+                .retryPolicy(RetryPolicy.NONE)
+                .transportOptions(TransportOptions.builder()
+                        .readTimeout(Duration.ofMillis(200))
+                        .readTimeoutOverride("downloadIssuedInvoiceAsPdf", Duration.ofSeconds(5))
+                        .build())
+                .build();
+        client = registry.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void readTimeoutApplies() throws Exception {
+        server.enqueue(new MockResponse().setBody(INVOICE).setHeadersDelay(1, TimeUnit.SECONDS));
+
+        try {
+            client.getIssuedInvoice("1");
+            fail();
+        } catch (InterruptedIOException expected) {
+        }
+    }
+
+    @Test
+    public void overriddenEndpointWaitsLonger() throws Exception {
+        server.enqueue(new MockResponse().setBody("%PDF").setHeadersDelay(1, TimeUnit.SECONDS));
+
+        assertThat(client.downloadIssuedInvoiceAsPdf("1").string()).isEqualTo("%PDF");
+    }
+
+    @Test
+    public void overriddenCallTimeoutOutlastsSharedOne() throws Exception {
+        FlexibeeClientRegistry limited = FlexibeeClientRegistry.builder()
+                .retryPolicy(RetryPolicy.NONE)
+                .transportOptions(TransportOptions.builder()
+                        .callTimeout(Duration.ofMillis(200))
+                        .readTimeoutOverride("downloadIssuedInvoiceAsPdf", Duration.ofSeconds(5))
+                        .callTimeoutOverride("downloadIssuedInvoiceAsPdf", Duration.ofSeconds(10))
+                        .build())
+                .build();
+        try {
+            FlexibeeClient limitedClient = limited.client("winstrom", "winstrom", "winstrom", server.url("/").toString());
+            server.enqueue(new MockResponse().setBody("%PDF").setHeadersDelay(1, TimeUnit.SECONDS));
+            server.enqueue(new MockResponse().setBody(INVOICE).setHeadersDelay(1, TimeUnit.SECONDS));
+
+            assertThat(limitedClient.downloadIssuedInvoiceAsPdf("1").string()).isEqualTo("%PDF");
+            try {
+                limitedClient.getIssuedInvoice("1");
+                fail();
+            } catch (InterruptedIOException expected) {
+            }
+        } finally {
+            limited.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readTimeoutOverrideLongerThanCallTimeoutIsRejected() {
+        TransportOptions.builder()
+                .callTimeout(Duration.ofSeconds(1))
+                .readTimeoutOverride("downloadIssuedInvoiceAsPdf", Duration.ofSeconds(5))
+                .build();
+    }
+}
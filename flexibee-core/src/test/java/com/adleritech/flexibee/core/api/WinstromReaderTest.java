@@ -0,0 +1,85 @@
+package com.adleritech.flexibee.core.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.AddressBook;
+import com.adleritech.flexibee.core.api.domain.Result;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WinstromReaderTest {
+
+    @Test
+    public void readsListResponseRecordByRecord() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+                "<winstrom version=\"1.0\" rowCount=\"2\">\n" +
+                "  <adresar>\n" +
+                "    <id>1</id>\n" +
+                "    <id>code:CSOB</id>\n" +
+                "    <kod>CSOB</kod>\n" +
+                "    <nazev>Československá obchodní banka, a. s.</nazev>\n" +
+                "    <lastUpdate>2018-01-01T00:00:00.000+01:00</lastUpdate>\n" +
+                "  </adresar>\n" +
+                "  <adresar>\n" +
+                "    <id>2</id>\n" +
+                "    <kod>KB</kod>\n" +
+                "    <platceDph>true</platceDph>\n" +
+                "  </adresar>\n" +
+                "</winstrom>";
+
+        try (WinstromReader<AddressBook> reader = WinstromReader.open(stream(xml), AddressBook.class)) {
+            assertThat(reader.hasNext()).isTrue();
+            AddressBook first = reader.next();
+            assertThat(first.getId()).containsExactly("1", "code:CSOB");
+            assertThat(first.getName()).isEqualTo("Československá obchodní banka, a. s.");
+            assertThat(reader.getRootAttributes()).containsEntry("rowCount", "2");
+
+            AddressBook second = reader.next();
+            assertThat(second.getCode()).isEqualTo("KB");
+            assertThat(second.getPaysVat()).isTrue();
+            assertThat(reader.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void readsNestedImportResults() throws Exception {
+        String xml = "<winstrom version=\"1.0\">\n" +
+                "  <success>true</success>\n" +
+                "  <results>\n" +
+                "    <result><id>123</id><ref>/c/winstrom/faktura-vydana/123</ref></result>\n" +
+                "    <result><id>124</id></result>\n" +
+                "  </results>\n" +
+                "</winstrom>";
+
+        try (Stream<Result> results = WinstromReader.open(stream(xml), "result", Result.class).stream()) {
+            List<String> ids = results.map(Result::getId).collect(Collectors.toList());
+            assertThat(ids).containsExactly("123", "124");
+        }
+    }
+
+    @Test
+    public void emptyResponse() throws Exception {
+        try (WinstromReader<AddressBook> reader = WinstromReader.open(stream("<winstrom version=\"1.0\"/>"), AddressBook.class)) {
+            assertThat(reader.hasNext()).isFalse();
+            assertThat(reader.getRootAttributes()).containsEntry("version", "1.0");
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void malformedResponse() throws Exception {
+        try (WinstromReader<AddressBook> reader = WinstromReader.open(stream("<winstrom><adresar><kod>A</adresar>"), AddressBook.class)) {
+            reader.next();
+        }
+    }
+
+    private static ByteArrayInputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
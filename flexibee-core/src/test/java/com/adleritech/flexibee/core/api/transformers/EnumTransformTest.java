@@ -0,0 +1,29 @@
+package com.adleritech.flexibee.core.api.transformers;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import com.adleritech.flexibee.core.api.domain.PaymentStatus;
+import com.adleritech.flexibee.core.api.domain.VatRateKind;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EnumTransformTest {
+
+    @Test
+    public void readsConstantsByTheirStringValue() throws Exception {
+        EnumTransform transform = EnumTransform.of(PaymentStatus.class);
+
+        assertThat(transform.read("stavUhr.castUhr")).isEqualTo(PaymentStatus.PARTIALLY);
+        assertThat(transform.read("PARTIALLY")).isNull();
+        assertThat(transform.write(PaymentStatus.FULLY)).isEqualTo("stavUhr.uhrazeno");
+    }
+
+    @Test
+    public void matcherReturnsSharedInstances() throws Exception {
+        assertThat(Factory.matchers().match(PaymentStatus.class)).isSameAs(EnumTransform.of(PaymentStatus.class));
+        assertThat(Factory.matchers().match(VatRateKind.class)).isNotSameAs(EnumTransform.of(PaymentStatus.class));
+        assertThat(Factory.matchers().match(LocalDate.class)).isSameAs(Factory.matchers().match(LocalDate.class));
+    }
+}
@@ -0,0 +1,57 @@
+package com.adleritech.flexibee.core.api.transformers;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Year;
+
+import org.junit.Test;
+import org.simpleframework.xml.transform.Transform;
+
+import com.adleritech.flexibee.core.api.domain.IssuedInvoice;
+import com.adleritech.flexibee.core.api.domain.PaymentStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransformRegistryTest {
+
+    @Test
+    public void resolvesSharedTransformsByType() throws Exception {
+        TransformRegistry registry = TransformRegistry.defaults();
+
+        assertThat(registry.match(LocalDate.class)).isInstanceOf(LocalDateTransform.class).isSameAs(registry.match(LocalDate.class));
+        assertThat(registry.match(PaymentStatus.class)).isSameAs(EnumTransform.of(PaymentStatus.class));
+        assertThat(registry.match(String.class)).isNull();
+        assertThat(registry.match(BigDecimal.class)).isNull();
+        assertThat(registry.match(Boolean.class)).isNull();
+    }
+
+    @Test
+    public void bigDecimalKeepsScale() throws Exception {
+        StringWriter xml = new StringWriter();
+        Factory.persister().write(IssuedInvoice.builder().sumWithoutVat(new BigDecimal("1210.50")).build(), xml);
+
+        assertThat(xml.toString()).contains(">1210.50<");
+    }
+
+    @Test
+    public void withAddsTypesWithoutChangingTheOriginal() throws Exception {
+        Transform<Year> yearTransform = new Transform<Year>() {
+            @Override
+            public Year read(String value) {
+                return Year.parse(value);
+            }
+
+            @Override
+            public String write(Year value) {
+                return value.toString();
+            }
+        };
+
+        TransformRegistry registry = TransformRegistry.defaults().with(Year.class, yearTransform);
+
+        assertThat(registry.match(Year.class)).isSameAs(yearTransform);
+        assertThat(registry.match(LocalDate.class)).isSameAs(TransformRegistry.defaults().match(LocalDate.class));
+        assertThat(TransformRegistry.defaults().match(Year.class)).isNull();
+    }
+}